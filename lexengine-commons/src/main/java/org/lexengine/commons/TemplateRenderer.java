@@ -8,6 +8,8 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -18,6 +20,12 @@ import org.lexengine.commons.logging.Out;
 /**
  * The TemplateRenderer class is responsible for rendering templates by replacing placeholders with
  * actual values. It provides methods to render templates to a string or to a file.
+ *
+ * <p>A part of a template can be rendered conditionally by enclosing it in the lines <code>
+ * ${if attribute}</code> and <code>${end attribute}</code>, the attribute being either true or
+ * false. The lines of the section are kept only if the attribute is true, and the lines of the
+ * markers are always removed. Sections may be nested, the attributes of the sections nested in a
+ * removed one being validated all the same.
  */
 public class TemplateRenderer {
 
@@ -26,6 +34,10 @@ public class TemplateRenderer {
    */
   private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile("\\$\\{(\\w+)}");
 
+  /** Pattern to match the lines opening and closing a section, ${if name} and ${end name}. */
+  private static final Pattern SECTION_PATTERN =
+      Pattern.compile("(?m)^[ \\t]*\\$\\{(if|end) (\\w+)}[ \\t]*(?:\\R|\\z)");
+
   /** The template string to be rendered. */
   private final String template;
 
@@ -84,15 +96,16 @@ public class TemplateRenderer {
   }
 
   /**
-   * Renders a template to a string by replacing placeholders with actual values.
+   * Renders a template to a string by replacing placeholders with actual values, once the
+   * conditional sections are resolved.
    *
    * @param template the template string
    * @param model the model containing the values to replace the placeholders
    * @return the rendered template
-   * @throws GeneratorException if a placeholder is not found in the model
+   * @throws GeneratorException if a placeholder is not found in the model, or a section is invalid
    */
   public static String render(String template, Map<String, String> model) {
-    Matcher matcher = PLACEHOLDER_PATTERN.matcher(template);
+    Matcher matcher = PLACEHOLDER_PATTERN.matcher(renderSections(template, model));
     StringBuilder result = new StringBuilder();
     while (matcher.find()) {
       String placeholder = matcher.group(1);
@@ -101,9 +114,69 @@ public class TemplateRenderer {
         Out.error("Failed to render template! Attribute %s not found!", placeholder);
         throw GeneratorException.error(ErrorType.ERR_CLASS_GENERATE_ATTR_MISSING);
       }
-      matcher.appendReplacement(result, attrVal);
+      // The value is taken literally, '$' and '\' aren't group references or escapes
+      matcher.appendReplacement(result, Matcher.quoteReplacement(attrVal));
     }
     matcher.appendTail(result);
     return result.toString();
   }
+
+  /**
+   * Keeps the lines of the sections whose attribute is true, and removes the others along with the
+   * lines of the markers.
+   *
+   * @param template the template string
+   * @param model the model containing the attributes of the sections
+   * @return the template without sections
+   * @throws GeneratorException if an attribute is not found in the model or isn't a boolean, or the
+   *     sections aren't closed in order
+   */
+  private static String renderSections(String template, Map<String, String> model) {
+    Matcher matcher = SECTION_PATTERN.matcher(template);
+    StringBuilder result = new StringBuilder();
+    Deque<String> sections = new ArrayDeque<>();
+    // Number of enclosing sections whose lines are kept
+    int kept = 0;
+    int position = 0;
+    while (matcher.find()) {
+      if (kept == sections.size()) {
+        result.append(template, position, matcher.start());
+      }
+      position = matcher.end();
+      String name = matcher.group(2);
+      if ("if".equals(matcher.group(1))) {
+        // The attribute is validated even if the enclosing section is dropped
+        boolean keep = isTrue(name, model);
+        if (kept == sections.size() && keep) {
+          kept++;
+        }
+        sections.push(name);
+      } else {
+        if (!name.equals(sections.peek())) {
+          Out.error("Failed to render template! Section %s closed but not open!", name);
+          throw GeneratorException.error(ErrorType.ERR_CLASS_GENERATE_SECTION_INVALID);
+        }
+        sections.pop();
+        kept = Math.min(kept, sections.size());
+      }
+    }
+    if (!sections.isEmpty()) {
+      Out.error("Failed to render template! Section %s not closed!", sections.peek());
+      throw GeneratorException.error(ErrorType.ERR_CLASS_GENERATE_SECTION_INVALID);
+    }
+    return result.append(template, position, template.length()).toString();
+  }
+
+  private static boolean isTrue(String attribute, Map<String, String> model) {
+    String attrVal = model.get(attribute);
+    if (attrVal == null) {
+      Out.error("Failed to render template! Attribute %s not found!", attribute);
+      throw GeneratorException.error(ErrorType.ERR_CLASS_GENERATE_ATTR_MISSING);
+    }
+    if (!"true".equals(attrVal) && !"false".equals(attrVal)) {
+      Out.error("Failed to render template! Attribute %s of a section isn't a boolean!", attribute);
+      throw GeneratorException.error(ErrorType.ERR_CLASS_GENERATE_SECTION_INVALID);
+    }
+    return Boolean.parseBoolean(attrVal);
+  }
 }
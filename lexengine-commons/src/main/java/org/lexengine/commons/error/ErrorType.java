@@ -25,6 +25,15 @@ public enum ErrorType {
   /** Invalid regular expression */
   ERR_LEX_REGEX_INVALID,
 
+  /** Counted repetition in a regular expression expands beyond the states limit */
+  ERR_LEX_REGEX_REPETITION_LIMIT,
+
+  /** Invalid command of a rule, e.g. -> skip */
+  ERR_LEX_RULE_COMMAND_INVALID,
+
+  /** A rule of a line separated specification matches past a line separator */
+  ERR_LEX_LINE_SEPARATOR_INVALID,
+
   /** Invalid output directory specified */
   ERR_LEX_OUT_DIR_INVALID,
 
@@ -37,6 +46,9 @@ public enum ErrorType {
   /** Placeholder attribute missing during class generation */
   ERR_CLASS_GENERATE_ATTR_MISSING,
 
+  /** Conditional section of a template not closed in order, or whose attribute isn't a boolean */
+  ERR_CLASS_GENERATE_SECTION_INVALID,
+
   ERR_LEX_TEMPLATE_FILE_READ,
 
   ERR_PARSER_UNIMPLEMENTED,
@@ -40,6 +40,14 @@ public class TemplateRendererTest {
     assertEquals(expected, TemplateRenderer.render(template, model));
   }
 
+  @Test
+  public void testRenderSpecialCharacters() {
+    String template = "String s = ${value};";
+    Map<String, String> model = Map.of("value", "\"$1 \\n\"");
+    String expected = "String s = \"$1 \\n\";";
+    assertEquals(expected, TemplateRenderer.render(template, model));
+  }
+
   @Test
   public void testRenderMissingAttribute() {
     String template = "Hello, ${name}!";
@@ -47,6 +55,45 @@ public class TemplateRendererTest {
     assertThrows(GeneratorException.class, () -> TemplateRenderer.render(template, model));
   }
 
+  @Test
+  public void testRenderSections() {
+    String template = "a\n${if x}\n  b ${name}\n${end x}\n  ${if y}\nc\n  ${end y}\nd";
+    Map<String, String> model = Map.of("x", "true", "y", "false", "name", "John");
+    assertEquals("a\n  b John\nd", TemplateRenderer.render(template, model));
+  }
+
+  @Test
+  public void testRenderNestedSections() {
+    String template = "${if x}\na\n${if y}\nb\n${end y}\nc\n${end x}\n${if y}\nd\n${end y}\n";
+    assertEquals(
+        "a\nb\nc\nd\n",
+        TemplateRenderer.render(template, Map.of("x", "true", "y", "true")));
+    assertEquals("a\nc\n", TemplateRenderer.render(template, Map.of("x", "true", "y", "false")));
+    assertEquals("", TemplateRenderer.render(template, Map.of("x", "false", "y", "false")));
+    // The attributes of the sections nested in a dropped one are still validated
+    String nested = "${if x}\n${if y}\nb\n${end y}\n${end x}\n";
+    assertEquals("", TemplateRenderer.render(nested, Map.of("x", "false", "y", "true")));
+    assertThrows(
+        GeneratorException.class, () -> TemplateRenderer.render(nested, Map.of("x", "false")));
+    assertThrows(
+        GeneratorException.class,
+        () -> TemplateRenderer.render(nested, Map.of("x", "false", "y", "no")));
+  }
+
+  @Test
+  public void testRenderInvalidSections() {
+    Map<String, String> model = Map.of("x", "true", "y", "true", "name", "John");
+    assertThrows(
+        GeneratorException.class, () -> TemplateRenderer.render("${if x}\na\n", model));
+    assertThrows(
+        GeneratorException.class, () -> TemplateRenderer.render("a\n${end x}\n", model));
+    assertThrows(
+        GeneratorException.class,
+        () -> TemplateRenderer.render("${if x}\n${if y}\n${end x}\n${end y}\n", model));
+    assertThrows(
+        GeneratorException.class, () -> TemplateRenderer.render("${if name}\n${end name}", model));
+  }
+
   @Test
   public void testRenderToFile() throws IOException {
     String template = "Hello, ${name}!";
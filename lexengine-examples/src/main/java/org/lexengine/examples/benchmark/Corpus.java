@@ -0,0 +1,46 @@
+/*
+* Copyright (c) 2025 lex-engine
+* Author: Pradeesh Kumar
+*/
+package org.lexengine.examples.benchmark;
+
+import java.util.Random;
+
+/** Synthetic sources of the benchmarks, made of the lexemes of the benchmark specification. */
+final class Corpus {
+
+  private static final String[] WORDS = {
+    "abstract", "assert", "boolean", "break", "byte", "case", "catch", "char", "class", "const",
+    "continue", "default", "do", "double", "else", "enum", "extends", "final", "finally", "float",
+    "for", "goto", "if", "implements", "import", "instanceof", "int", "interface", "long", "native",
+    "new", "package", "private", "protected", "public", "return", "short", "static", "strictfp",
+    "super", "switch", "synchronized", "this", "throw", "throws", "transient", "try", "void",
+    "volatile", "while", "var", "record", "yield", "sealed", "permits", "x", "y", "i", "buffer",
+    "result", "search", "count", "value_1", "0", "42", "1024", ";", ",", ".", "(", ")", "{", "}",
+    "=", "+", "-", "*", "/", "<", ">"
+  };
+
+  private Corpus() {}
+
+  /**
+   * Returns a source of random lines of lexemes separated by spaces.
+   *
+   * @param random the random generator
+   * @param length the minimum number of characters of the source
+   * @return the source
+   */
+  static String generate(Random random, int length) {
+    StringBuilder source = new StringBuilder(length + 128);
+    while (source.length() < length) {
+      int wordCount = 1 + random.nextInt(16);
+      for (int i = 0; i < wordCount; i++) {
+        if (i > 0) {
+          source.append(' ');
+        }
+        source.append(WORDS[random.nextInt(WORDS.length)]);
+      }
+      source.append('\n');
+    }
+    return source.toString();
+  }
+}
@@ -0,0 +1,332 @@
+/*
+* Copyright (c) 2025 lex-engine
+* Author: Pradeesh Kumar
+*/
+package org.lexengine.examples.benchmark;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.lexengine.examples.benchmark.dfa.KeywordDfaLexer;
+
+/**
+ * Benchmarks of the scanners generated from the benchmark specifications, on a synthetic source.
+ * Each run scans the source with every variant of the benchmark, checking that they compute the
+ * same checksum of the tokens.
+ *
+ * <p>Usage: {@code ScannerBenchmark <benchmark> [megabytes] [runs]}, the benchmarks being:
+ *
+ * <ul>
+ *   <li>{@code keywords}: keywords recognized with the perfect hash table, or by the DFA
+ *   <li>{@code fill}: types and offsets read token by token, or in batches by {@code fill}
+ *   <li>{@code parallel}: source scanned sequentially, or in chunks by {@code scanParallel}
+ *   <li>{@code pipeline}: tokens consumed on the scanning thread, or through {@code TokenPipeline}
+ *   <li>{@code prefetching}: source read ahead by {@code prefetching}, or on the scanning thread
+ * </ul>
+ */
+public final class ScannerBenchmark {
+
+  private static final String USAGE =
+      "Usage: ScannerBenchmark keywords|fill|parallel|pipeline|prefetching [megabytes] [runs]";
+
+  private ScannerBenchmark() {}
+
+  public static void main(String[] args) throws IOException {
+    if (args.length == 0) {
+      System.err.println(USAGE);
+      System.exit(1);
+    }
+    int megabytes = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+    int runs = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+    String source = Corpus.generate(new Random(42), megabytes << 20);
+    for (int run = 1; run <= runs; run++) {
+      System.out.println("Run " + run);
+      switch (args[0]) {
+        case "keywords" -> keywords(source);
+        case "fill" -> fill(source);
+        case "parallel" -> parallel(source);
+        case "pipeline" -> pipeline(source);
+        case "prefetching" -> prefetching(source);
+        default -> {
+          System.err.println(USAGE);
+          System.exit(1);
+        }
+      }
+    }
+  }
+
+  /** Runs the actions of the tokens, the keywords being recognized by the hash table or the DFA. */
+  private static void keywords(String source) {
+    long hash =
+        time(
+            "keyword hash",
+            () -> checksum(new KeywordHashLexer(new StringReader(source))::next));
+    long dfa =
+        time("keyword DFA", () -> checksum(new KeywordDfaLexer(new StringReader(source))::next));
+    verify(hash, dfa);
+  }
+
+  /** Reads the types and the offsets of the tokens one by one, or in batches of 4096 tokens. */
+  private static void fill(String source) {
+    long sequential = time("nextType", () -> scan(new KeywordHashLexer(new StringReader(source))));
+    long batched =
+        time(
+            "fill",
+            () -> {
+              KeywordHashLexer lexer = new KeywordHashLexer(new StringReader(source));
+              int[] types = new int[4096];
+              int[] starts = new int[4096];
+              int[] ends = new int[4096];
+              long checksum = 0;
+              int count;
+              while ((count = lexer.fill(types, starts, ends)) > 0) {
+                for (int i = 0; i < count; i++) {
+                  checksum = checksum(checksum, types[i], starts[i], ends[i]);
+                }
+              }
+              return checksum;
+            });
+    verify(sequential, batched);
+  }
+
+  /**
+   * Scans the source sequentially, or in parallel on pools of 1, 2 and 4 threads and as many
+   * threads as processors, with 4 chunks per thread.
+   */
+  private static void parallel(String source) {
+    long sequential =
+        time("nextType", () -> scan(new KeywordHashLexer(source, 0, source.length())));
+    int processors = Runtime.getRuntime().availableProcessors();
+    for (int parallelism : new TreeSet<>(List.of(1, 2, 4, processors))) {
+      try (ForkJoinPool pool = new ForkJoinPool(parallelism)) {
+        long parallel =
+            time(
+                "scanParallel, parallelism " + parallelism,
+                () -> {
+                  KeywordHashLexer.Tokens tokens =
+                      KeywordHashLexer.scanParallel(source, parallelism * 4, pool);
+                  long checksum = 0;
+                  for (int i = 0; i < tokens.count(); i++) {
+                    checksum = checksum(checksum, tokens.type(i), tokens.start(i), tokens.end(i));
+                  }
+                  return checksum;
+                });
+        verify(sequential, parallel);
+      }
+    }
+  }
+
+  /**
+   * Scans the source alone, then consumes each token with about 100 multiply-adds, as a parser
+   * would do some work per token, on the scanning thread or on a thread of its own.
+   */
+  private static void pipeline(String source) {
+    time("nextType", () -> scan(new KeywordHashLexer(new StringReader(source))));
+    long sequential =
+        time(
+            "nextType, consumed",
+            () -> {
+              KeywordHashLexer lexer = new KeywordHashLexer(new StringReader(source));
+              long checksum = 0;
+              int type;
+              while ((type = lexer.nextType()) != KeywordHashLexer.TOKEN_EOF) {
+                checksum = consume(checksum, type, lexer.tokenStart(), lexer.tokenEnd());
+              }
+              return checksum;
+            });
+    long pipelined =
+        time(
+            "TokenPipeline, consumed",
+            () -> {
+              try (KeywordHashLexer.TokenPipeline pipeline =
+                  new KeywordHashLexer.TokenPipeline(new StringReader(source))) {
+                long checksum = 0;
+                int type;
+                while ((type = pipeline.nextType()) != KeywordHashLexer.TOKEN_EOF) {
+                  checksum = consume(checksum, type, pipeline.tokenStart(), pipeline.tokenEnd());
+                }
+                return checksum;
+              }
+            });
+    verify(sequential, pipelined);
+  }
+
+  /**
+   * Reads the source ahead on a virtual thread, or on the scanning thread: from a file, from a
+   * gzipped file, and from a stream taking 1 ms to read each block of 64 KB, as slow storage would.
+   */
+  private static void prefetching(String source) throws IOException {
+    Path plain = Files.createTempFile("source", ".txt");
+    Path gzip = Files.createTempFile("source", ".txt.gz");
+    try {
+      Files.writeString(plain, source, StandardCharsets.UTF_8);
+      try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(gzip))) {
+        Files.copy(plain, out);
+      }
+      long expected = scan(new KeywordHashLexer(source, 0, source.length()));
+      for (Path path : List.of(plain, gzip)) {
+        String name = path == plain ? "file" : "gzipped file";
+        boolean gzipped = path == gzip;
+        long sequential = time(name, () -> scan(open(path, gzipped, false)));
+        long prefetched = time(name + ", prefetching", () -> scan(open(path, gzipped, true)));
+        verify(expected, sequential, prefetched);
+      }
+      Reader slow = new InputStreamReader(slowStream(plain), StandardCharsets.UTF_8);
+      long sequential = time("slow stream", () -> scan(new KeywordHashLexer(slow)));
+      InputStream slowAhead = slowStream(plain);
+      long prefetched =
+          time(
+              "slow stream, prefetching",
+              () -> scan(KeywordHashLexer.prefetching(slowAhead, StandardCharsets.UTF_8)));
+      verify(expected, sequential, prefetched);
+    } finally {
+      Files.delete(plain);
+      Files.delete(gzip);
+    }
+  }
+
+  /**
+   * Opens a lexer reading the given file.
+   *
+   * @param path the path of the file
+   * @param gzipped whether the file is gzipped
+   * @param prefetching whether the file is read ahead on a virtual thread
+   * @return the lexer
+   */
+  private static KeywordHashLexer open(Path path, boolean gzipped, boolean prefetching) {
+    try {
+      if (prefetching) {
+        return KeywordHashLexer.prefetching(path, StandardCharsets.UTF_8);
+      }
+      InputStream in = new BufferedInputStream(Files.newInputStream(path), 1 << 16);
+      if (gzipped) {
+        in = new GZIPInputStream(in, 1 << 16);
+      }
+      return new KeywordHashLexer(new InputStreamReader(in, StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Opens the given file as a stream taking 1 ms to read each block of 64 KB.
+   *
+   * @param path the path of the file
+   * @return the stream
+   * @throws IOException if the file can't be opened
+   */
+  private static InputStream slowStream(Path path) throws IOException {
+    return new BufferedInputStream(new SlowInputStream(Files.newInputStream(path)), 1 << 16);
+  }
+
+  /**
+   * Returns the checksum of the types and the offsets of the tokens the given lexer scans, and
+   * closes it.
+   *
+   * @param lexer the lexer
+   * @return the checksum
+   */
+  private static long scan(KeywordHashLexer lexer) {
+    try (lexer) {
+      long checksum = 0;
+      int type;
+      while ((type = lexer.nextType()) != KeywordHashLexer.TOKEN_EOF) {
+        checksum = checksum(checksum, type, lexer.tokenStart(), lexer.tokenEnd());
+      }
+      return checksum;
+    }
+  }
+
+  /** Updates the checksum with the given token, with about 100 multiply-adds. */
+  private static long consume(long checksum, int type, int start, int end) {
+    for (int i = 0; i < 100; i++) {
+      checksum = checksum * 31 + (type ^ i);
+    }
+    return checksum(checksum, type, start, end);
+  }
+
+  private static long checksum(long checksum, int type, int start, int end) {
+    return (checksum * 31 + type) * 31 + end - start;
+  }
+
+  /**
+   * Returns the checksum of the values returned by the given action until it returns null.
+   *
+   * @param next the action returning the next value
+   * @return the checksum
+   */
+  private static long checksum(Supplier<Integer> next) {
+    long checksum = 0;
+    Integer value;
+    while ((value = next.get()) != null) {
+      checksum = checksum * 31 + value;
+    }
+    return checksum;
+  }
+
+  /**
+   * Runs the given scan, printing its duration.
+   *
+   * @param name the name of the scan
+   * @param scan the scan, returning the checksum of the tokens
+   * @return the checksum of the tokens
+   */
+  private static long time(String name, LongSupplier scan) {
+    long start = System.nanoTime();
+    long checksum = scan.getAsLong();
+    System.out.printf("  %-28s %6d ms%n", name, (System.nanoTime() - start) / 1_000_000);
+    return checksum;
+  }
+
+  /**
+   * Verifies that the variants of a benchmark scanned the same tokens.
+   *
+   * @param expected the checksum of the first variant
+   * @param checksums the checksums of the others
+   * @throws IllegalStateException if a checksum differs
+   */
+  private static void verify(long expected, long... checksums) {
+    for (long checksum : checksums) {
+      if (checksum != expected) {
+        throw new IllegalStateException("The checksums differ: " + expected + ", " + checksum);
+      }
+    }
+  }
+
+  /** A stream taking 1 ms for each read of 64 KB at most, as slow storage would. */
+  private static final class SlowInputStream extends FilterInputStream {
+
+    SlowInputStream(InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      try {
+        Thread.sleep(1);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException();
+      }
+      return super.read(b, off, Math.min(len, 1 << 16));
+    }
+  }
+}
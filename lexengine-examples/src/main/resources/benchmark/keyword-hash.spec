@@ -0,0 +1,71 @@
+# Lexer Specification of the benchmarks, a Java-like language of 55 keywords.
+# The keywords are also matched by the identifier rule, so they are recognized with the perfect hash
+# table of the keywords. The features render the parts of the scanner measured by the benchmarks.
+
+class=KeywordHashLexer
+package=org.lexengine.examples.benchmark
+methodName=next
+returnType=Integer
+features=parallel, pipeline, prefetching
+
+---
+
+"abstract" { return 10; }
+"assert" { return 11; }
+"boolean" { return 12; }
+"break" { return 13; }
+"byte" { return 14; }
+"case" { return 15; }
+"catch" { return 16; }
+"char" { return 17; }
+"class" { return 18; }
+"const" { return 19; }
+"continue" { return 20; }
+"default" { return 21; }
+"do" { return 22; }
+"double" { return 23; }
+"else" { return 24; }
+"enum" { return 25; }
+"extends" { return 26; }
+"final" { return 27; }
+"finally" { return 28; }
+"float" { return 29; }
+"for" { return 30; }
+"goto" { return 31; }
+"if" { return 32; }
+"implements" { return 33; }
+"import" { return 34; }
+"instanceof" { return 35; }
+"int" { return 36; }
+"interface" { return 37; }
+"long" { return 38; }
+"native" { return 39; }
+"new" { return 40; }
+"package" { return 41; }
+"private" { return 42; }
+"protected" { return 43; }
+"public" { return 44; }
+"return" { return 45; }
+"short" { return 46; }
+"static" { return 47; }
+"strictfp" { return 48; }
+"super" { return 49; }
+"switch" { return 50; }
+"synchronized" { return 51; }
+"this" { return 52; }
+"throw" { return 53; }
+"throws" { return 54; }
+"transient" { return 55; }
+"try" { return 56; }
+"void" { return 57; }
+"volatile" { return 58; }
+"while" { return 59; }
+"var" { return 60; }
+"record" { return 61; }
+"yield" { return 62; }
+"sealed" { return 63; }
+"permits" { return 64; }
+"[a-zA-Z_][a-zA-Z0-9_]*" { return 1; }
+"[0-9]+" { return 2; }
+"[;,\.\(\)\{\}=+\-*/<>]" { return 3; }
+"[\ \t\r\n]+" -> skip
@@ -0,0 +1,48 @@
+/*
+* Copyright (c) 2025 lex-engine
+* Author: Pradeesh Kumar
+*/
+package org.lexengine.lexer.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Expands code point ranges with their case variants, which is how case-insensitive regular
+ * expressions are compiled.
+ *
+ * <p>Folding happens on the ranges of each literal and class, before the language alphabets are
+ * computed. A case-insensitive literal such as 'a' becomes the class [Aa], and as long as no
+ * case-sensitive rule tells 'A' and 'a' apart, both end up in the same alphabet class. The generated
+ * scanner thus folds the case through its class table lookup, without any extra work per character
+ * and without any extra DFA state.
+ */
+final class CaseFolding {
+
+  private CaseFolding() {}
+
+  /**
+   * Returns the given ranges along with the lower, upper and title case variants of every code
+   * point within them, using the simple case mappings of {@link Character}.
+   *
+   * @param ranges the ranges to fold
+   * @return the sorted list of disjoint ranges including the case variants
+   */
+  static List<Range> fold(List<Range> ranges) {
+    List<Range> folded = new ArrayList<>(ranges);
+    for (Range range : ranges) {
+      for (int codePoint = range.start(); codePoint <= range.end(); codePoint++) {
+        addVariant(folded, codePoint, Character.toLowerCase(codePoint));
+        addVariant(folded, codePoint, Character.toUpperCase(codePoint));
+        addVariant(folded, codePoint, Character.toTitleCase(codePoint));
+      }
+    }
+    return DisjointIntSet.union(folded);
+  }
+
+  private static void addVariant(List<Range> folded, int codePoint, int variant) {
+    if (variant != codePoint) {
+      folded.add(Range.of(variant));
+    }
+  }
+}
@@ -0,0 +1,128 @@
+/*
+* Copyright (c) 2025 lex-engine
+* Author: Pradeesh Kumar
+*/
+package org.lexengine.lexer.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A two-stage lookup table mapping unicode code points to their alphabet index.
+ *
+ * <p>The code point space is divided into blocks of {@link #BLOCK_SIZE} code points. The first
+ * stage maps the high bits of a code point to a block, and the second stage maps the low bits of
+ * the code point within that block to the alphabet index. Identical blocks are stored only once,
+ * hence a specification covering the whole unicode range still results in a small table.
+ */
+final class CharClassTable {
+
+  /** Number of low bits of a code point used to index within a block. */
+  static final int BLOCK_SHIFT = 8;
+
+  /** Number of code points in a block. */
+  static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+
+  /** Mask extracting the low bits of a code point. */
+  static final int BLOCK_MASK = BLOCK_SIZE - 1;
+
+  /** Number of blocks needed to cover the whole code point space. */
+  static final int BLOCKS_COUNT = (Character.MAX_CODE_POINT + 1) >> BLOCK_SHIFT;
+
+  /** Alphabet index of the code points not belonging to any alphabet. */
+  static final int NO_CLASS = -1;
+
+  /** First stage, maps the high bits of a code point to the index of its unique block. */
+  private final int[] blocks;
+
+  /** Second stage, the concatenation of all the unique blocks. */
+  private final int[] classes;
+
+  private CharClassTable(int[] blocks, int[] classes) {
+    this.blocks = blocks;
+    this.classes = classes;
+  }
+
+  /**
+   * Creates the two-stage table from the mapping of ranges to alphabet indices.
+   *
+   * @param alphabetIndex mapping of ranges to alphabet indices
+   * @return a new CharClassTable instance
+   */
+  static CharClassTable from(Map<Range, Integer> alphabetIndex) {
+    int[] flat = new int[BLOCKS_COUNT << BLOCK_SHIFT];
+    Arrays.fill(flat, NO_CLASS);
+    for (Map.Entry<Range, Integer> entry : alphabetIndex.entrySet()) {
+      Arrays.fill(flat, entry.getKey().start(), entry.getKey().end() + 1, entry.getValue());
+    }
+    int[] blocks = new int[BLOCKS_COUNT];
+    List<Integer> uniqueBlocks = new ArrayList<>();
+    Map<Integer, List<Integer>> blocksByHash = new HashMap<>();
+    for (int b = 0; b < BLOCKS_COUNT; b++) {
+      int from = b << BLOCK_SHIFT;
+      int hash = Arrays.hashCode(Arrays.copyOfRange(flat, from, from + BLOCK_SIZE));
+      List<Integer> candidates = blocksByHash.computeIfAbsent(hash, h -> new ArrayList<>(1));
+      Integer match = null;
+      for (Integer candidate : candidates) {
+        int candidateFrom = uniqueBlocks.get(candidate) << BLOCK_SHIFT;
+        if (Arrays.equals(
+            flat, from, from + BLOCK_SIZE, flat, candidateFrom, candidateFrom + BLOCK_SIZE)) {
+          match = candidate;
+          break;
+        }
+      }
+      if (match == null) {
+        match = uniqueBlocks.size();
+        uniqueBlocks.add(b);
+        candidates.add(match);
+      }
+      blocks[b] = match;
+    }
+    int[] classes = new int[uniqueBlocks.size() << BLOCK_SHIFT];
+    for (int i = 0; i < uniqueBlocks.size(); i++) {
+      System.arraycopy(
+          flat, uniqueBlocks.get(i) << BLOCK_SHIFT, classes, i << BLOCK_SHIFT, BLOCK_SIZE);
+    }
+    return new CharClassTable(blocks, classes);
+  }
+
+  /**
+   * Returns the alphabet index of the given code point.
+   *
+   * @param codePoint the code point to look up
+   * @return the alphabet index, or {@link #NO_CLASS} if the code point belongs to no alphabet
+   */
+  int classOf(int codePoint) {
+    return classes[(blocks[codePoint >>> BLOCK_SHIFT] << BLOCK_SHIFT) | (codePoint & BLOCK_MASK)];
+  }
+
+  /**
+   * Returns the first stage of the table, indexed by the high bits of a code point.
+   *
+   * @return the block index of each block of code points
+   */
+  int[] blocks() {
+    return blocks;
+  }
+
+  /**
+   * Returns the second stage of the table, the concatenation of the unique blocks.
+   *
+   * @return the alphabet indices of the unique blocks
+   */
+  int[] classes() {
+    return classes;
+  }
+
+  /**
+   * Returns the number of unique blocks stored in the second stage.
+   *
+   * @return the number of unique blocks
+   */
+  int uniqueBlocksCount() {
+    return classes.length >> BLOCK_SHIFT;
+  }
+}
@@ -45,7 +45,7 @@ public class Dfa {
    * @param alphabetIndex mapping of ranges to alphabet indices
    */
   public Dfa(int statesCount, DisjointIntSet languageAlphabets, Map<Range, Integer> alphabetIndex) {
-    this.alphabetSize = languageAlphabets.size();
+    this.alphabetSize = LexUtils.alphabetsCount(alphabetIndex);
     this.statesCount = 1; // 0 is dedicated for phi state
     this.transitionTbl = new int[statesCount + 1][this.alphabetSize];
     this.finalStates = new BitSet();
@@ -92,17 +92,18 @@ public class Dfa {
   }
 
   /**
-   * Returns a copy of the transition table, excluding the phi-state.
+   * Returns a copy of the transition table, including the row of the phi-state.
    *
    * <p>The returned table maps states to next states based on input alphabets. Each row represents
    * a state, and each column represents an alphabet. The cell at row `i` and column `j` contains
-   * the index of the next state reached by transitioning from state `i` on alphabet `j`.
+   * the index of the next state reached by transitioning from state `i` on alphabet `j`. Since the
+   * states are used as row indices, the table has one row more than {@link #statesCount()}.
    *
    * @return a copy of the transition table
    */
   public int[][] transitionTbl() {
-    int[][] result = new int[statesCount - 1][alphabetSize];
-    System.arraycopy(this.transitionTbl, 0, result, 0, statesCount - 1);
+    int[][] result = new int[statesCount][alphabetSize];
+    System.arraycopy(this.transitionTbl, 0, result, 0, statesCount);
     return result;
   }
 
@@ -231,6 +232,51 @@ public class Dfa {
     transitionTbl = newTransitionTbl;
   }
 
+  /**
+   * Returns whether the given code point always ends a lexeme, i.e. every transition on it leads to
+   * a final state without any transition, or to the phi-state.
+   *
+   * @param codePoint the code point
+   * @return true if no lexeme continues after the code point, false otherwise
+   */
+  public boolean endsLexemes(int codePoint) {
+    Integer alphaIndex = alphabetIndex.get(languageAlphabets.getRange(codePoint));
+    return alphaIndex == null || endsLexemesOn(alphaIndex);
+  }
+
+  /**
+   * Returns the alphabets which always end a lexeme, as {@link #endsLexemes(int)} tells for their
+   * code points.
+   *
+   * @return the bitset of the alphabet indices
+   */
+  public BitSet lexemeEndingAlphabets() {
+    BitSet alphabets = new BitSet();
+    for (int alphaIndex = 0; alphaIndex < alphabetSize; alphaIndex++) {
+      alphabets.set(alphaIndex, endsLexemesOn(alphaIndex));
+    }
+    return alphabets;
+  }
+
+  private boolean endsLexemesOn(int alphaIndex) {
+    for (int state = 0; state < statesCount; state++) {
+      int to = transitionTbl[state][alphaIndex];
+      if (to != 0 && (!finalStates.get(to) || hasTransitions(to))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean hasTransitions(int state) {
+    for (int to : transitionTbl[state]) {
+      if (to != 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   /**
    * Tests whether the DFA accepts a given input string.
    *
@@ -239,8 +285,8 @@ public class Dfa {
    */
   public Action test(String input) {
     int currentState = this.startState;
-    for (int i = 0; i < input.length(); i++) {
-      Range range = languageAlphabets.getRange(input.charAt(i));
+    for (int i = 0; i < input.length(); i += Character.charCount(input.codePointAt(i))) {
+      Range range = languageAlphabets.getRange(input.codePointAt(i));
       Integer alphaIndex = alphabetIndex.get(range);
       if (alphaIndex == null) {
         return null;
@@ -67,6 +67,52 @@ public class DisjointIntSet {
     return set;
   }
 
+  /**
+   * Computes the complement of the given ranges over the whole unicode code point space.
+   *
+   * @param ranges the ranges to complement, which may overlap each other
+   * @return the sorted list of ranges covering every code point not present in the given ranges
+   */
+  public static List<Range> complement(Collection<Range> ranges) {
+    List<Range> sorted = new ArrayList<>(ranges);
+    sorted.sort(Comparator.comparingInt(Range::start));
+    List<Range> result = new ArrayList<>();
+    int next = 0;
+    for (Range range : sorted) {
+      if (range.start() > next) {
+        result.add(Range.of(next, range.start() - 1));
+      }
+      next = Math.max(next, range.end() + 1);
+    }
+    if (next <= Character.MAX_CODE_POINT) {
+      result.add(Range.of(next, Character.MAX_CODE_POINT));
+    }
+    return result;
+  }
+
+  /**
+   * Computes the union of the given ranges.
+   *
+   * @param ranges the ranges to merge, which may overlap each other
+   * @return the sorted list of disjoint ranges, where overlapping and adjacent ranges are merged
+   */
+  public static List<Range> union(Collection<Range> ranges) {
+    List<Range> sorted = new ArrayList<>(ranges);
+    sorted.sort(Comparator.comparingInt(Range::start));
+    List<Range> result = new ArrayList<>(sorted.size());
+    for (Range range : sorted) {
+      int last = result.size() - 1;
+      if (last >= 0 && result.get(last).end() + 1 >= range.start()) {
+        if (result.get(last).end() < range.end()) {
+          result.set(last, Range.of(result.get(last).start(), range.end()));
+        }
+      } else {
+        result.add(range);
+      }
+    }
+    return result;
+  }
+
   /**
    * Adds a single value to the set.
    *
@@ -250,7 +296,7 @@ public class DisjointIntSet {
       active += e.type;
       prevPosition = e.position;
     }
-    this.ranges = new LinkedList<>(result);
+    this.ranges = result;
     this.disjointed = true;
   }
 
@@ -0,0 +1,395 @@
+/*
+* Copyright (c) 2025 lex-engine
+* Author: Pradeesh Kumar
+*/
+package org.lexengine.lexer.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.lexengine.commons.logging.Out;
+
+/**
+ * Recognizes keywords with a perfect hash table instead of DFA states.
+ *
+ * <p>A keyword is a rule made only of plain literals, e.g. <code>"while"</code>, whose string is
+ * also matched by a later rule, e.g. an identifier rule. Such a rule is removed from the rules the
+ * automaton is built from, the later rule (the host) recognizes the lexeme instead, and the
+ * generated scanner reclassifies the lexemes of the host which are found in the keyword table.
+ * This keeps the automaton as small as the identifier rule alone, no matter how many keywords the
+ * language has.
+ *
+ * <p>The table is a two level perfect hash of the length and of a few distinguishing characters of
+ * each keyword. The first level maps a keyword to a bucket holding a seed, the second level hashes
+ * the keyword again with that seed to its slot. The seeds are searched at generation time so that
+ * no two keywords share a slot, a lookup therefore costs two hashes and one string comparison. The
+ * hashing must be kept identical to the <code>keyword(String)</code> method of the scanner
+ * template.
+ */
+final class KeywordTable {
+
+  /** Maximum number of seeds tried for a single bucket before the table is grown. */
+  private static final int MAX_SEED_TRIALS = 1 << 16;
+
+  /** Seed of the first level hash. */
+  static final int BUCKET_SEED = 0x9E3779B9;
+
+  /**
+   * A keyword moved from the automaton into the table.
+   *
+   * @param text the string matched by the keyword
+   * @param action the action of the keyword rule
+   * @param host the action of the rule recognizing the keyword in the automaton
+   */
+  record Keyword(String text, Action action, Action host) {}
+
+  /** The rules the automaton is built from. */
+  private final List<RegexAction> regexActions;
+
+  /** The keywords found in the table, by slot. */
+  private final Keyword[] slots;
+
+  /** The seed of each bucket of the first level. */
+  private final int[] seeds;
+
+  /** The positions of the characters hashed along with the length, counted from the end if < 0. */
+  private final int[] positions;
+
+  private KeywordTable(
+      List<RegexAction> regexActions, Keyword[] slots, int[] seeds, int[] positions) {
+    this.regexActions = regexActions;
+    this.slots = slots;
+    this.seeds = seeds;
+    this.positions = positions;
+  }
+
+  /**
+   * Returns a table without keywords, leaving all the rules in the automaton.
+   *
+   * @param regexActions the rules of the specification
+   * @return an empty keyword table
+   */
+  static KeywordTable empty(List<RegexAction> regexActions) {
+    return new KeywordTable(regexActions, new Keyword[0], new int[0], new int[0]);
+  }
+
+  /**
+   * Moves the keyword rules of the specification into a perfect hash table.
+   *
+   * <p>A literal rule is a keyword when the first rule matching its string among the rules that
+   * aren't literals comes after it, and both rules run their action, i.e. their lexemes are
+   * neither skipped nor hidden. A literal rule repeating the string of a keyword is dead, since
+   * the earlier rule always wins, and it is dropped as well. Every other rule is left as is.
+   *
+   * @param regexActions the rules of the specification
+   * @return the keyword table
+   */
+  static KeywordTable extract(List<RegexAction> regexActions) {
+    Map<Integer, String> literals = new HashMap<>();
+    List<RegexAction> others = new ArrayList<>();
+    for (int i = 0; i < regexActions.size(); i++) {
+      String literal =
+          regexActions.get(i).action().channel() == Action.Channel.DEFAULT
+              ? literalString(regexActions.get(i).regex())
+              : null;
+      if (literal != null) {
+        literals.put(i, literal);
+      } else {
+        // The action is replaced by the rule index, to find out which rule matches a literal
+        others.add(new RegexAction(regexActions.get(i).regex(), new Action(String.valueOf(i))));
+      }
+    }
+    if (literals.isEmpty() || others.isEmpty()) {
+      return empty(regexActions);
+    }
+    Dfa dfa = buildDfa(others);
+    Map<String, Keyword> keywords = new LinkedHashMap<>();
+    List<RegexAction> remaining = new ArrayList<>();
+    for (int i = 0; i < regexActions.size(); i++) {
+      RegexAction regexAction = regexActions.get(i);
+      String literal = literals.get(i);
+      if (literal == null) {
+        remaining.add(regexAction);
+        continue;
+      }
+      if (keywords.containsKey(literal)) {
+        Out.debug("Dropping the rule %s, the keyword is already defined", regexAction.regex());
+        continue;
+      }
+      Action hostRule = dfa.test(literal);
+      int host = hostRule == null ? -1 : Integer.parseInt(hostRule.action());
+      if (host < i || regexActions.get(host).action().channel() != Action.Channel.DEFAULT) {
+        remaining.add(regexAction);
+        continue;
+      }
+      keywords.put(
+          literal, new Keyword(literal, regexAction.action(), regexActions.get(host).action()));
+    }
+    if (keywords.isEmpty()) {
+      return empty(regexActions);
+    }
+    return build(regexActions, remaining, new ArrayList<>(keywords.values()));
+  }
+
+  /**
+   * Returns the rules the automaton is built from, i.e. the rules of the specification without the
+   * keywords.
+   *
+   * @return the remaining rules
+   */
+  List<RegexAction> regexActions() {
+    return regexActions;
+  }
+
+  /**
+   * Returns the number of keywords in the table.
+   *
+   * @return the number of keywords
+   */
+  int size() {
+    return (int) Arrays.stream(slots).filter(Objects::nonNull).count();
+  }
+
+  /**
+   * Returns the slots of the table, holding the keyword hashed to each slot or null.
+   *
+   * @return the slots of the table
+   */
+  Keyword[] slots() {
+    return slots;
+  }
+
+  /**
+   * Returns the seed of each bucket of the first level hash.
+   *
+   * @return the bucket seeds
+   */
+  int[] seeds() {
+    return seeds;
+  }
+
+  /**
+   * Returns the character positions hashed along with the length.
+   *
+   * @return the hashed positions
+   */
+  int[] positions() {
+    return positions;
+  }
+
+  /**
+   * Returns the slot of the given text, the same way the generated scanner does.
+   *
+   * @param text the text to look up
+   * @return the slot of the keyword, or -1 if the text isn't a keyword
+   */
+  int lookup(String text) {
+    if (slots.length == 0 || text.isEmpty()) {
+      return -1;
+    }
+    int key = key(text, positions);
+    int slot = mix(key, seeds[mix(key, BUCKET_SEED) & (seeds.length - 1)]) & (slots.length - 1);
+    return slots[slot] != null && slots[slot].text().equals(text) ? slot : -1;
+  }
+
+  /**
+   * Returns the string matched by a regular expression made only of literals without quantifiers.
+   *
+   * @param regex the regular expression
+   * @return the matched string, or null if the regex matches anything else
+   */
+  private static String literalString(Regex regex) {
+    if (regex.isCaseInsensitive()) {
+      return null;
+    }
+    StringBuilder sb = new StringBuilder();
+    for (RegexToken token : regex) {
+      if (token.type() != RegexToken.Type.Literal || token.hasQuantifier()) {
+        return null;
+      }
+      sb.appendCodePoint(token.chVal());
+    }
+    return sb.isEmpty() ? null : sb.toString();
+  }
+
+  /**
+   * Builds the DFA of the given rules, used to find the rule matching each literal.
+   *
+   * @param regexActions the rules
+   * @return the DFA
+   */
+  private static Dfa buildDfa(List<RegexAction> regexActions) {
+    DisjointIntSet alphabets = new DisjointIntSet();
+    LexUtils.extractAlphabetsFromRegex(regexActions, alphabets);
+    Map<Range, Integer> alphabetIndex = LexUtils.createAlphabetsIndex(regexActions, alphabets);
+    Nfa nfa = new NfaGenerator(regexActions, alphabets, alphabetIndex).generate();
+    return new DfaGenerator(nfa).generate();
+  }
+
+  /**
+   * Searches a perfect hash of the keywords.
+   *
+   * @param regexActions the rules of the specification
+   * @param remaining the rules left in the automaton
+   * @param keywords the keywords
+   * @return the keyword table, or an empty table if the keywords can't be told apart by their keys
+   */
+  private static KeywordTable build(
+      List<RegexAction> regexActions, List<RegexAction> remaining, List<Keyword> keywords) {
+    int[] positions = distinguishingPositions(keywords);
+    if (distinctKeys(keywords, positions) < keywords.size()) {
+      Out.warn("Keywords can't be hashed, they are recognized by the automaton instead");
+      return empty(regexActions);
+    }
+    int[] keys = keywords.stream().mapToInt(k -> key(k.text(), positions)).toArray();
+    int tableSize = Integer.highestOneBit(Math.max(1, keywords.size() * 2 - 1)) << 1;
+    while (true) {
+      int bucketsCount = Math.max(1, tableSize >> 2);
+      Keyword[] slots = new Keyword[tableSize];
+      int[] seeds = new int[bucketsCount];
+      if (assignSeeds(keywords, keys, slots, seeds)) {
+        return new KeywordTable(remaining, slots, seeds, positions);
+      }
+      tableSize <<= 1;
+    }
+  }
+
+  /**
+   * Assigns a seed to every bucket such that all the keywords fall into distinct slots. The
+   * largest buckets are placed first, while the table is still mostly empty.
+   *
+   * @return true if all the keywords are placed, false if the table is too small
+   */
+  private static boolean assignSeeds(
+      List<Keyword> keywords, int[] keys, Keyword[] slots, int[] seeds) {
+    List<List<Integer>> buckets = new ArrayList<>();
+    for (int i = 0; i < seeds.length; i++) {
+      buckets.add(new ArrayList<>());
+    }
+    for (int i = 0; i < keys.length; i++) {
+      buckets.get(mix(keys[i], BUCKET_SEED) & (seeds.length - 1)).add(i);
+    }
+    List<Integer> order = new ArrayList<>();
+    for (int i = 0; i < seeds.length; i++) {
+      order.add(i);
+    }
+    order.sort(Comparator.comparingInt((Integer b) -> buckets.get(b).size()).reversed());
+    for (int bucket : order) {
+      List<Integer> members = buckets.get(bucket);
+      if (members.isEmpty()) {
+        break;
+      }
+      int seed = findSeed(members, keys, slots);
+      if (seed == -1) {
+        return false;
+      }
+      seeds[bucket] = seed;
+      for (int member : members) {
+        slots[mix(keys[member], seed) & (slots.length - 1)] = keywords.get(member);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Finds a seed hashing the members of a bucket to distinct free slots.
+   *
+   * @return the seed, or -1 if none is found
+   */
+  private static int findSeed(List<Integer> members, int[] keys, Keyword[] slots) {
+    Set<Integer> taken = new HashSet<>();
+    for (int seed = 1; seed <= MAX_SEED_TRIALS; seed++) {
+      taken.clear();
+      boolean placed = true;
+      for (int member : members) {
+        int slot = mix(keys[member], seed) & (slots.length - 1);
+        if (slots[slot] != null || !taken.add(slot)) {
+          placed = false;
+          break;
+        }
+      }
+      if (placed) {
+        return seed;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Chooses the character positions which, along with the length, tell all the keywords apart.
+   *
+   * <p>Positions are added greedily, picking at each step the one that separates the most
+   * keywords, until the keys of all the keywords are distinct.
+   *
+   * @param keywords the keywords
+   * @return the positions, negative positions count from the end
+   */
+  private static int[] distinguishingPositions(List<Keyword> keywords) {
+    int maxLength = keywords.stream().mapToInt(k -> k.text().length()).max().orElse(0);
+    List<Integer> candidates = new ArrayList<>();
+    for (int i = 0; i < maxLength; i++) {
+      candidates.add(i);
+      candidates.add(-i - 1);
+    }
+    int[] positions = new int[0];
+    while (distinctKeys(keywords, positions) < keywords.size() && !candidates.isEmpty()) {
+      int best = candidates.get(0);
+      int bestDistinct = -1;
+      for (int candidate : candidates) {
+        int[] trial = Arrays.copyOf(positions, positions.length + 1);
+        trial[positions.length] = candidate;
+        int distinct = distinctKeys(keywords, trial);
+        if (distinct > bestDistinct) {
+          best = candidate;
+          bestDistinct = distinct;
+        }
+      }
+      candidates.remove(Integer.valueOf(best));
+      positions = Arrays.copyOf(positions, positions.length + 1);
+      positions[positions.length - 1] = best;
+    }
+    return positions;
+  }
+
+  private static int distinctKeys(List<Keyword> keywords, int[] positions) {
+    return (int) keywords.stream().mapToInt(k -> key(k.text(), positions)).distinct().count();
+  }
+
+  /**
+   * Combines the length and the characters at the given positions of the text.
+   *
+   * @param text the text
+   * @param positions the positions, clamped to the text, negative positions count from the end
+   * @return the key of the text
+   */
+  static int key(String text, int[] positions) {
+    int length = text.length();
+    int key = length;
+    for (int position : positions) {
+      int index = position >= 0 ? Math.min(position, length - 1) : Math.max(length + position, 0);
+      key = (key ^ text.charAt(index)) * 0x01000193;
+    }
+    return key;
+  }
+
+  /**
+   * Hashes a key with a seed.
+   *
+   * @param key the key
+   * @param seed the seed
+   * @return the hash
+   */
+  static int mix(int key, int seed) {
+    int h = (key ^ seed) * 0x85EBCA6B;
+    h ^= h >>> 13;
+    h *= 0xC2B2AE35;
+    return h ^ (h >>> 16);
+  }
+}
@@ -5,13 +5,17 @@
 package org.lexengine.lexer.core;
 
 import java.io.IOException;
+import java.nio.charset.Charset;
 import java.nio.file.Path;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.lexengine.commons.TemplateRenderer;
 import org.lexengine.commons.error.ErrorType;
 import org.lexengine.commons.error.GeneratorException;
 import org.lexengine.commons.logging.Out;
+import org.lexengine.lexer.core.KeywordTable.Keyword;
+import org.lexengine.lexer.util.LexerOptions;
 
 /**
  * An interface representing a generator for lexical classes. Implementations of this interface
@@ -29,18 +33,39 @@ public interface LexClassGenerator {
  *
  * <p>This class generates a Lexer Class based on the provided DFA and lexical specification. It
  * uses a table-based approach to represent the DFA's transition table and final states.
+ *
+ * <p>Each mode of the specification has its own DFA. The states of all the DFAs are numbered in a
+ * single space, the phi-state 0 being shared, so that the generated scanner switches the mode by
+ * changing its start state only. The rows of each mode are compressed apart, and loaded the first
+ * time the scanner enters the mode.
+ *
+ * <p>Every rule returning its lexemes has an integer token type, shared by the rules of the same
+ * name or, for the rules without name, of the same action. The types are numbered from 1 in the
+ * order of the rules, and the types of the named rules are declared as constants.
  */
 class TableBasedLexClassGenerator implements LexClassGenerator {
 
   private static final String COMMA = ", ";
   private static final String NEW_LINE_STR = System.lineSeparator();
 
-  /** The DFA used to generate the lexical class. */
-  private final Dfa dfa;
+  /** The DFA of each mode, the initial mode first. */
+  private final Map<String, Dfa> modeDfas;
+
+  /** The number of the first state of each mode, in the order of the modes. */
+  private final int[] modeFirstStates;
+
+  /** The actions of the final states of all the modes, by state number. */
+  private final Map<Integer, Action> actions;
 
   /** The lexical specification for the generated class. */
   private final LexSpec lexSpec;
 
+  /** The keywords recognized with a perfect hash instead of the DFA. */
+  private final KeywordTable keywordTable;
+
+  /** The token types, keyed by the name of the rules or the action of the rules without name. */
+  private final Map<Object, Integer> tokenTypes;
+
   /** Output directory where the generated class will be written. */
   private final Path outDir;
 
@@ -57,8 +82,50 @@ class TableBasedLexClassGenerator implements LexClassGenerator {
    */
   public TableBasedLexClassGenerator(
       Dfa dfa, LexSpec lexSpec, Path outDir, Path scannerClassTemplate) {
-    this.dfa = dfa;
+    this(
+        Map.of(LexSpec.INITIAL_MODE, dfa),
+        lexSpec,
+        KeywordTable.empty(lexSpec.regexActionList()),
+        outDir,
+        scannerClassTemplate);
+  }
+
+  /**
+   * Constructs a new TableBasedLexClassGenerator instance for a specification with modes,
+   * recognizing the keywords of the given table.
+   *
+   * @param modeDfas DFA of each mode, the initial mode first
+   * @param lexSpec lexical specification for the generated class
+   * @param keywordTable keywords recognized with a perfect hash instead of the DFA
+   * @param outDir output directory where the generated class will be written
+   * @param scannerClassTemplate template file for the scanner class
+   */
+  public TableBasedLexClassGenerator(
+      Map<String, Dfa> modeDfas,
+      LexSpec lexSpec,
+      KeywordTable keywordTable,
+      Path outDir,
+      Path scannerClassTemplate) {
+    this.modeDfas = modeDfas;
+    this.modeFirstStates = new int[modeDfas.size()];
+    this.actions = new HashMap<>();
+    int mode = 0;
+    int firstState = 1;
+    for (Dfa dfa : modeDfas.values()) {
+      modeFirstStates[mode] = firstState;
+      int offset = firstState - 1;
+      dfa.actions().forEach((state, action) -> actions.put(offset + state, action));
+      firstState += dfa.statesCount();
+      mode++;
+    }
     this.lexSpec = lexSpec;
+    this.keywordTable = keywordTable;
+    this.tokenTypes = new LinkedHashMap<>();
+    for (RegexAction regexAction : lexSpec.regexActionList()) {
+      if (regexAction.action().channel() == Action.Channel.DEFAULT) {
+        tokenTypes.putIfAbsent(typeKey(regexAction.action()), tokenTypes.size() + 1);
+      }
+    }
     this.outDir = outDir;
     this.scannerClassTemplate = scannerClassTemplate;
   }
@@ -81,9 +148,12 @@ class TableBasedLexClassGenerator implements LexClassGenerator {
    * Prepares a map of attributes required for generating the Lexer Class.
    *
    * <p>This method populates a map with various attributes derived from the DFA and LexSpec,
-   * including class name, package name, return type, method name, compressed transition table,
-   * final states, start state, states count, alphabets count, switch cases for final states, and
-   * alphabet index.
+   * including class name, package name, the types imported and the interfaces implemented by the
+   * lexer, return type, method name, compressed transition table and start state of each mode,
+   * final states, states count, alphabets count, switch cases for final states, the token type of
+   * each state, the two-stage table mapping code points to alphabet indices, the keyword perfect
+   * hash table, the charset of the files read by the lexer and whether each optional feature is
+   * rendered.
    *
    * <p>The prepared attributes are used to render a template for the Lexer Class.
    *
@@ -93,36 +163,234 @@ class TableBasedLexClassGenerator implements LexClassGenerator {
     Map<String, String> attributes = new HashMap<>();
     attributes.put("className", lexSpec.lexClassName());
     attributes.put("package", lexSpec.lexPackageName());
+    attributes.put(
+        "imports",
+        lexSpec.imports().stream()
+            .map(type -> "import " + type + ";" + NEW_LINE_STR)
+            .collect(Collectors.joining()));
+    attributes.put(
+        "interfaces",
+        lexSpec.interfaces().stream().map(type -> COMMA + type).collect(Collectors.joining()));
     attributes.put("returnType", lexSpec.returnType());
     attributes.put("methodName", lexSpec.methodName());
-    attributes.put("compressedTransitionTbl", getCompressedTransitionTbl());
+    Dfa initialDfa = modeDfas.values().iterator().next();
+    attributes.put("modeConstants", getModeConstants());
+    attributes.put("modesCount", String.valueOf(modeDfas.size()));
+    attributes.put("lineSeparated", String.valueOf(lexSpec.lineSeparated()));
+    for (LexSpec.Feature feature : LexSpec.Feature.values()) {
+      attributes.put(feature.id(), String.valueOf(lexSpec.features().contains(feature)));
+    }
+    // The class Tokens holds the tokens of the parallel scans and of the service
+    attributes.put(
+        "tokens",
+        String.valueOf(
+            lexSpec.lineSeparated()
+                || lexSpec.features().contains(LexSpec.Feature.PARALLEL)
+                || lexSpec.features().contains(LexSpec.Feature.SERVICE)));
+    attributes.put("syncClasses", getSyncClasses());
+    attributes.put("encoding", getEncoding());
+    attributes.put("modeTransitionTbls", getModeTransitionTbls());
+    attributes.put("modeStartStates", joinInts(getModeStartStates()));
+    attributes.put("modeFirstStates", joinInts(modeFirstStates));
+    attributes.put(
+        "modeStatesCounts",
+        joinInts(modeDfas.values().stream().mapToInt(Dfa::statesCount).toArray()));
+    attributes.put("modeSwitchCases", getModeSwitchCases());
     attributes.put("finalStates", getFinalStates());
-    attributes.put("startState", String.valueOf(dfa.startState()));
-    attributes.put("statesCount", String.valueOf(dfa.statesCount()));
-    attributes.put("alphabetsCount", String.valueOf(dfa.alphabetSize()));
+    attributes.put("skipStates", getChannelStates(Action.Channel.SKIP));
+    attributes.put("hiddenStates", getChannelStates(Action.Channel.HIDDEN));
+    attributes.put(
+        "statesCount",
+        String.valueOf(1 + modeDfas.values().stream().mapToInt(Dfa::statesCount).sum()));
+    attributes.put("alphabetsCount", String.valueOf(initialDfa.alphabetSize()));
     attributes.put("switchCases", getFinalStateSwitchCases());
-    attributes.put("alphabetIndex", getAlphabetIndex());
+    attributes.put("tokenConstants", getTokenConstants());
+    attributes.put("compressedStateTypes", compress(LexUtils.serializeArray(getStateTypes())));
+    CharClassTable classTable = CharClassTable.from(initialDfa.alphabetIndex());
+    attributes.put("classBlockShift", String.valueOf(CharClassTable.BLOCK_SHIFT));
+    attributes.put("classBlocksCount", String.valueOf(classTable.blocks().length));
+    attributes.put("classMapSize", String.valueOf(classTable.classes().length));
+    attributes.put("compressedClassBlocks", compress(LexUtils.serializeArray(classTable.blocks())));
+    attributes.put("compressedClassMap", compress(LexUtils.serializeArray(classTable.classes())));
+    Out.info(
+        "Alphabet lookup table generated. Num Unique Blocks: %d", classTable.uniqueBlocksCount());
+    attributes.put(
+        "keywords",
+        Arrays.stream(keywordTable.slots())
+            .map(k -> k == null ? "null" : javaString(k.text()))
+            .collect(Collectors.joining(COMMA)));
+    attributes.put(
+        "keywordTypes",
+        joinInts(
+            Arrays.stream(keywordTable.slots())
+                .mapToInt(k -> k == null ? 0 : typeOf(k.action()))
+                .toArray()));
+    attributes.put("keywordStates", getKeywordStates());
+    attributes.put("keywordSeeds", joinInts(keywordTable.seeds()));
+    attributes.put("keywordPositions", joinInts(keywordTable.positions()));
+    attributes.put("keywordBucketSeed", String.valueOf(KeywordTable.BUCKET_SEED));
     return attributes;
   }
 
+  /**
+   * Generates the constants of the modes, numbered in the order of the modes.
+   *
+   * @return the declarations of the mode constants
+   */
+  private String getModeConstants() {
+    List<String> modes = new ArrayList<>(modeDfas.keySet());
+    return IntStream.range(0, modes.size())
+        .mapToObj(i -> String.format("  public static final int MODE_%s = %d;", modes.get(i), i))
+        .collect(Collectors.joining(NEW_LINE_STR));
+  }
+
+  /**
+   * Generates the constants of the token types of the named rules.
+   *
+   * @return the declarations of the token type constants
+   */
+  private String getTokenConstants() {
+    return tokenTypes.entrySet().stream()
+        .filter(e -> e.getKey() instanceof String)
+        .map(
+            e ->
+                String.format(
+                    "  public static final int TOKEN_%s = %d;", e.getKey(), e.getValue()))
+        .collect(Collectors.joining(NEW_LINE_STR));
+  }
+
+  /**
+   * Returns the token type of each state, 0 for the states returning no lexeme.
+   *
+   * @return the token types indexed by the state number
+   */
+  private int[] getStateTypes() {
+    int[] stateTypes = new int[1 + modeDfas.values().stream().mapToInt(Dfa::statesCount).sum()];
+    actions.forEach(
+        (state, action) -> {
+          if (action.channel() == Action.Channel.DEFAULT) {
+            stateTypes[state] = typeOf(action);
+          }
+        });
+    return stateTypes;
+  }
+
+  private int typeOf(Action action) {
+    return tokenTypes.get(typeKey(action));
+  }
+
+  private static Object typeKey(Action action) {
+    return action.name() != null ? action.name() : action;
+  }
+
+  /**
+   * Returns the final states whose lexemes are looked up in the keyword table.
+   *
+   * @return a string containing the bitset of the states as comma separated longs
+   */
+  private String getKeywordStates() {
+    Set<Action> hosts = new HashSet<>();
+    for (Keyword keyword : keywordTable.slots()) {
+      if (keyword != null) {
+        hosts.add(keyword.host());
+      }
+    }
+    BitSet states = new BitSet();
+    actions.forEach((state, action) -> states.set(state, hosts.contains(action)));
+    return toLongArray(states);
+  }
+
+  /**
+   * Compresses the rows of the transition table of each mode, with the transitions renumbered to
+   * the states of all the modes.
+   *
+   * @return the quoted base64-encoded tables, separated by commas
+   */
+  private String getModeTransitionTbls() {
+    List<String> tables = new ArrayList<>();
+    int mode = 0;
+    for (Dfa dfa : modeDfas.values()) {
+      int offset = modeFirstStates[mode++] - 1;
+      int[][] transitionTbl = dfa.transitionTbl();
+      // The row of the phi-state is shared by all the modes
+      int[][] rows = new int[transitionTbl.length - 1][];
+      for (int state = 1; state < transitionTbl.length; state++) {
+        rows[state - 1] =
+            Arrays.stream(transitionTbl[state]).map(to -> to == 0 ? 0 : offset + to).toArray();
+      }
+      tables.add('"' + getCompressedTransitionTbl(rows) + '"');
+    }
+    return String.join(COMMA, tables);
+  }
+
+  private int[] getModeStartStates() {
+    int[] startStates = new int[modeDfas.size()];
+    int mode = 0;
+    for (Dfa dfa : modeDfas.values()) {
+      startStates[mode] = modeFirstStates[mode] - 1 + dfa.startState();
+      mode++;
+    }
+    return startStates;
+  }
+
+  /**
+   * Generates the switch cases changing the mode of the scanner when a final state is reached.
+   *
+   * @return a string containing the switch cases of the final states changing the mode
+   */
+  private String getModeSwitchCases() {
+    Map<List<Action.ModeCommand>, List<Integer>> statesByCommands =
+        actions.entrySet().stream()
+            .filter(e -> !e.getValue().modeCommands().isEmpty())
+            .collect(
+                Collectors.groupingBy(
+                    e -> e.getValue().modeCommands(),
+                    Collectors.mapping(Map.Entry::getKey, Collectors.toList())));
+    return statesByCommands.entrySet().stream()
+        .map(
+            e ->
+                String.format(
+                    "      case %s -> {%s }",
+                    e.getValue().stream().map(String::valueOf).collect(Collectors.joining(COMMA)),
+                    e.getKey().stream().map(this::getModeCommand).collect(Collectors.joining())))
+        .collect(Collectors.joining(NEW_LINE_STR));
+  }
+
+  private String getModeCommand(Action.ModeCommand command) {
+    return switch (command.kind()) {
+      case PUSH -> String.format(" pushMode(MODE_%s);", command.mode());
+      case POP -> " popMode();";
+      case SET -> String.format(" mode(MODE_%s);", command.mode());
+    };
+  }
+
   /**
    * Compresses the DFA's transition table into a base64-encoded string.
    *
    * <p>This method first serializes the transition table into a byte array using {@link
-   * LexUtils#serialize2DArray(int[][])}. Then, it compresses the serialized data using {@link
-   * LexUtils#compress(byte[])}, and finally encodes the compressed data into a base64 string using
-   * {@link Base64#getEncoder()}.
+   * LexUtils#serialize2DArray(int[][])}, then compresses and encodes it using {@link
+   * #compress(byte[])}.
    *
+   * @param transitionTbl the DFA's transition table
    * @return the compressed transition table as a base64-encoded string
    */
-  private String getCompressedTransitionTbl() {
-    int[][] transitionTbl = dfa.transitionTbl();
-    byte[] serializedData = LexUtils.serialize2DArray(transitionTbl);
+  private String getCompressedTransitionTbl(int[][] transitionTbl) {
+    return compress(LexUtils.serialize2DArray(transitionTbl));
+  }
+
+  /**
+   * Compresses the serialized data using {@link LexUtils#compress(byte[])}, and encodes the
+   * compressed data into a base64 string using {@link Base64#getEncoder()}.
+   *
+   * @param serializedData the serialized table
+   * @return the compressed table as a base64-encoded string
+   */
+  private String compress(byte[] serializedData) {
     try {
       byte[] compressedData = LexUtils.compress(serializedData);
       return Base64.getEncoder().encodeToString(compressedData);
     } catch (IOException e) {
-      Out.error("Error while compressing the transition table!", e);
+      Out.error("Error while compressing the lookup table!", e);
       throw GeneratorException.error(ErrorType.ERR_CLASS_GENERATE);
     }
   }
@@ -136,7 +404,52 @@ class TableBasedLexClassGenerator implements LexClassGenerator {
    * @return a string containing the final states separated by commas
    */
   private String getFinalStates() {
-    return Arrays.stream(dfa.finalStates().toLongArray())
+    BitSet finalStates = new BitSet();
+    actions.keySet().forEach(finalStates::set);
+    return toLongArray(finalStates);
+  }
+
+  /**
+   * Returns a comma-separated string representation of the final states whose lexemes are sent to
+   * the given channel.
+   *
+   * @param channel the channel of the lexemes
+   * @return a string containing the bitset of the states as comma separated longs
+   */
+  private String getChannelStates(Action.Channel channel) {
+    BitSet states = new BitSet();
+    actions.forEach((state, action) -> states.set(state, action.channel() == channel));
+    return toLongArray(states);
+  }
+
+  /**
+   * Returns the alphabets after which the scanner can restart in the initial mode, i.e. which
+   * always end a lexeme. With several modes, the mode at a position isn't known without scanning
+   * up to it, so no alphabet is returned.
+   *
+   * @return a string containing the bitset of the alphabets as comma separated longs
+   */
+  private String getSyncClasses() {
+    if (modeDfas.size() > 1) {
+      return "";
+    }
+    return toLongArray(modeDfas.get(LexSpec.INITIAL_MODE).lexemeEndingAlphabets());
+  }
+
+  /**
+   * Returns the name of the charset the generated lexer decodes the files with, the encoding of the
+   * options if set, the default charset otherwise.
+   *
+   * @return the name of the charset
+   */
+  private static String getEncoding() {
+    return LexerOptions.encoding != null
+        ? LexerOptions.encoding.name()
+        : Charset.defaultCharset().name();
+  }
+
+  private static String toLongArray(BitSet bitSet) {
+    return Arrays.stream(bitSet.toLongArray())
         .mapToObj(val -> String.format("%dL", val))
         .collect(Collectors.joining(COMMA));
   }
@@ -145,15 +458,18 @@ class TableBasedLexClassGenerator implements LexClassGenerator {
    * Generates a string representation of switch cases for final states in the DFA.
    *
    * <p>This method groups the actions by their values and constructs a string containing switch
-   * cases for each group. Each case corresponds to a set of states that share the same action.
+   * cases for each group. Each case corresponds to a set of states that share the same action. The
+   * states of skipped and hidden lexemes are resolved by the scanner loop, so they get no case.
    *
    * @return a string containing the switch cases for final states
    */
   private String getFinalStateSwitchCases() {
-    Map<Integer, Action> actions = dfa.actions();
     String caseFormat = "        case %s -> %s";
     Set<Map.Entry<Action, List<Map.Entry<Integer, Action>>>> reverse =
-        actions.entrySet().stream().collect(Collectors.groupingBy(Map.Entry::getValue)).entrySet();
+        actions.entrySet().stream()
+            .filter(e -> e.getValue().channel() == Action.Channel.DEFAULT)
+            .collect(Collectors.groupingBy(Map.Entry::getValue))
+            .entrySet();
 
     return reverse.stream()
         .map(
@@ -163,28 +479,61 @@ class TableBasedLexClassGenerator implements LexClassGenerator {
                       .map(Map.Entry::getKey)
                       .map(String::valueOf)
                       .collect(Collectors.joining(", "));
-              return String.format(caseFormat, caseValues, e.getKey().toString());
+              return String.format(caseFormat, caseValues, getKeywordSwitch(e.getKey()));
             })
         .collect(Collectors.joining(NEW_LINE_STR));
   }
 
   /**
-   * Returns a string representation of the alphabet index mappings.
+   * Generates the action of the states recognizing the given action, reclassifying the keywords
+   * hosted by the action.
+   *
+   * <p>When the action hosts keywords, the lexeme is looked up in the keyword table and a nested
+   * switch over the slot of the keyword selects the action of the keyword, falling back to the
+   * given action for any other lexeme.
    *
-   * <p>This method iterates over the DFA's alphabet index entries and constructs a string
-   * containing statements that populate a map with the alphabet characters and their corresponding
-   * indices.
+   * @param host the action of the final states
+   * @return the action code of the final states
+   */
+  private String getKeywordSwitch(Action host) {
+    Keyword[] slots = keywordTable.slots();
+    StringBuilder sb = new StringBuilder();
+    for (int slot = 0; slot < slots.length; slot++) {
+      if (slots[slot] != null && slots[slot].host().equals(host)) {
+        sb.append(String.format("            case %d -> %s%n", slot, slots[slot].action()));
+      }
+    }
+    if (sb.isEmpty()) {
+      return host.toString();
+    }
+    return String.format(
+        "{%n          switch (keyword()) {%n%s"
+            + "            default -> %s%n          }%n        }",
+        sb,
+        host);
+  }
+
+  /**
+   * Returns the Java string literal of the given text.
    *
-   * @return a string containing the alphabet index mappings
+   * @param text the text
+   * @return the quoted and escaped text
    */
-  private String getAlphabetIndex() {
-    StringBuilder out = new StringBuilder();
-    String format = "    map.put(%d, %d);\n";
-    for (Map.Entry<Range, Integer> entry : dfa.alphabetIndex().entrySet()) {
-      for (int c = entry.getKey().start(); c <= entry.getKey().end(); c++) {
-        out.append(String.format(format, c, entry.getValue()));
+  private static String javaString(String text) {
+    StringBuilder sb = new StringBuilder("\"");
+    for (char ch : text.toCharArray()) {
+      if (ch == '"' || ch == '\\') {
+        sb.append('\\').append(ch);
+      } else if (ch < 0x20 || ch > 0x7E) {
+        sb.append(String.format("\\u%04X", (int) ch));
+      } else {
+        sb.append(ch);
       }
     }
-    return out.toString();
+    return sb.append('"').toString();
+  }
+
+  private static String joinInts(int[] values) {
+    return Arrays.stream(values).mapToObj(String::valueOf).collect(Collectors.joining(COMMA));
   }
 }
@@ -5,7 +5,10 @@
 package org.lexengine.lexer.core;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Represents a Lexer Specification definition used to generate a lexer.
@@ -14,18 +17,34 @@ import java.util.List;
  * package, method name, and return type. It also stores a list of regular expression patterns and
  * their corresponding actions.
  *
+ * <p>Every rule is active in one or more modes (start conditions). The rules without modes are
+ * active in the {@link #INITIAL_MODE}, the scanner starts with.
+ *
  * @param lexClassName the name of the generated lexer class
  * @param lexPackageName the package name of the generated lexer class
  * @param methodName the name of the generated method
  * @param returnType the return type of the generated method
  * @param regexActionList the list of regular expressions and actions
+ * @param caseInsensitive whether all the regular expressions ignore the case
+ * @param keywordHash whether the keywords are recognized with a perfect hash instead of the DFA
+ * @param lineSeparated whether every line separator ends a lexeme, so that the lines of a source
+ *     can be scanned apart
+ * @param features the optional parts of the runtime rendered into the generated lexer
+ * @param imports the fully qualified names of the types imported by the generated lexer
+ * @param interfaces the interfaces implemented by the generated lexer
  */
 public record LexSpec(
     String lexClassName,
     String lexPackageName,
     String methodName,
     String returnType,
-    List<RegexAction> regexActionList) {
+    List<RegexAction> regexActionList,
+    boolean caseInsensitive,
+    boolean keywordHash,
+    boolean lineSeparated,
+    Set<Feature> features,
+    List<String> imports,
+    List<String> interfaces) {
 
   /** Default values for the metadata properties */
   public static final String DEFAULT_LEXER_CLASS_NAME = "Lexer";
@@ -34,16 +53,85 @@ public record LexSpec(
   public static final String DEFAULT_METHOD_NAME = "nextToken";
   public static final String DEFAULT_RETURN_TYPE = "Token";
 
+  /** Mode the scanner starts with, and of the rules without modes. */
+  public static final String INITIAL_MODE = "INITIAL";
+
+  /** Mode matching every mode of the specification. */
+  public static final String ALL_MODES = "*";
+
+  /** The optional parts of the runtime of a generated lexer, which are rendered on request. */
+  public enum Feature {
+    /** The nested class Document keeping the tokens of an edited text. */
+    DOCUMENT("document"),
+    /** The methods scanParallel scanning the chunks of a text speculatively in parallel. */
+    PARALLEL("parallel"),
+    /** The nested class LexingService lexing many sources concurrently on virtual threads. */
+    SERVICE("service"),
+    /** The methods publisher publishing the tokens to a Flow.Subscriber. */
+    PUBLISHER("publisher"),
+    /** The nested class TokenPipeline scanning a source on a producer thread. */
+    PIPELINE("pipeline"),
+    /** The methods prefetching reading a source ahead on a virtual thread. */
+    PREFETCHING("prefetching"),
+    /** The nested class TokenLookahead buffering the tokens for a parser looking ahead. */
+    LOOKAHEAD("lookahead"),
+    /** The constructors of the push scanners, and the methods feed scanning the chunks fed. */
+    PUSH("push"),
+    /** The methods tokens streaming the tokens, the streams of a text being split in parallel. */
+    STREAM("stream");
+
+    /** Name of the feature in the spec file, and of its attribute in the template. */
+    private final String id;
+
+    Feature(String id) {
+      this.id = id;
+    }
+
+    public String id() {
+      return id;
+    }
+  }
+
   public static Builder builder() {
     return new Builder();
   }
 
+  /**
+   * Returns the modes of the specification, the initial mode first and the others in the order of
+   * their first appearance.
+   *
+   * @return the list of modes
+   */
+  public List<String> modes() {
+    Set<String> modes = new LinkedHashSet<>();
+    modes.add(INITIAL_MODE);
+    regexActionList.forEach(regexAction -> modes.addAll(regexAction.modes()));
+    modes.remove(ALL_MODES);
+    return new ArrayList<>(modes);
+  }
+
+  /**
+   * Returns the rules active in the given mode.
+   *
+   * @param mode the mode
+   * @return the list of regex actions active in the mode, in the order of the specification
+   */
+  public List<RegexAction> regexActionList(String mode) {
+    return regexActionList.stream().filter(r -> r.isActiveIn(mode)).toList();
+  }
+
   /** A builder class for creating LexSpec instances. */
   public static class Builder {
     private String lexClassName = DEFAULT_LEXER_CLASS_NAME;
     private String lexPackageName = DEFAULT_LEXER_PACKAGE_NAME;
     private String methodName = DEFAULT_METHOD_NAME;
     private String returnType = DEFAULT_RETURN_TYPE;
+    private boolean caseInsensitive;
+    private boolean keywordHash = true;
+    private boolean lineSeparated;
+    private final Set<Feature> features = EnumSet.noneOf(Feature.class);
+    private final List<String> imports = new ArrayList<>();
+    private final List<String> interfaces = new ArrayList<>();
 
     private final List<RegexAction> regexActionList = new ArrayList<>();
 
@@ -67,6 +155,36 @@ public record LexSpec(
       return this;
     }
 
+    public Builder caseInsensitive(boolean caseInsensitive) {
+      this.caseInsensitive = caseInsensitive;
+      return this;
+    }
+
+    public Builder keywordHash(boolean keywordHash) {
+      this.keywordHash = keywordHash;
+      return this;
+    }
+
+    public Builder lineSeparated(boolean lineSeparated) {
+      this.lineSeparated = lineSeparated;
+      return this;
+    }
+
+    public Builder feature(Feature feature) {
+      this.features.add(feature);
+      return this;
+    }
+
+    public Builder addImport(String type) {
+      this.imports.add(type);
+      return this;
+    }
+
+    public Builder addInterface(String type) {
+      this.interfaces.add(type);
+      return this;
+    }
+
     public Builder addRegexAction(RegexAction regexAction) {
       this.regexActionList.add(regexAction);
       return this;
@@ -80,7 +198,18 @@ public record LexSpec(
      * @return the built LexSpec instance
      */
     public LexSpec build() {
-      return new LexSpec(lexClassName, lexPackageName, methodName, returnType, regexActionList);
+      return new LexSpec(
+          lexClassName,
+          lexPackageName,
+          methodName,
+          returnType,
+          regexActionList,
+          caseInsensitive,
+          keywordHash,
+          lineSeparated,
+          Set.copyOf(features),
+          List.copyOf(imports),
+          List.copyOf(interfaces));
     }
 
     /**
@@ -91,14 +220,66 @@ public record LexSpec(
     public List<RegexAction> regexActionList() {
       return regexActionList;
     }
+
+    /**
+     * Returns whether the regular expressions ignore the case by default.
+     *
+     * @return true if the specification is case-insensitive, false otherwise
+     */
+    public boolean caseInsensitive() {
+      return caseInsensitive;
+    }
   }
 }
 
 /**
  * Represents an action that can be performed. This class encapsulates a string representing the
- * action.
+ * action, the channel the lexemes of the rule are sent to, the mode changes of the rule and the
+ * name of the token type of the rule.
+ *
+ * @param action the code run when the rule matches
+ * @param channel the channel of the lexemes
+ * @param modeCommands the mode changes applied before the action runs, in order
+ * @param name the name of the token type, or null if the rule has no name
  */
-record Action(String action) {
+record Action(String action, Channel channel, List<ModeCommand> modeCommands, String name) {
+
+  /** The channels a rule can send its lexemes to. */
+  enum Channel {
+    /** The action is run and the lexeme is returned by the scanner. */
+    DEFAULT,
+    /** The lexeme is consumed by the scanner without running any action, e.g. whitespace. */
+    SKIP,
+    /** The lexeme is recorded by its offsets only, aside of the returned tokens, e.g. comments. */
+    HIDDEN
+  }
+
+  /**
+   * A change of the mode of the scanner.
+   *
+   * @param kind the kind of change
+   * @param mode the mode entered, or null when the previous mode is restored
+   */
+  record ModeCommand(Kind kind, String mode) {
+
+    /** The kinds of mode changes. */
+    enum Kind {
+      /** Saves the current mode on the mode stack and enters the mode. */
+      PUSH,
+      /** Restores the mode saved on the mode stack. */
+      POP,
+      /** Enters the mode, leaving the mode stack as is. */
+      SET
+    }
+  }
+
+  Action(String action) {
+    this(action, Channel.DEFAULT);
+  }
+
+  Action(String action, Channel channel) {
+    this(action, channel, List.of(), null);
+  }
 
   @Override
   public String toString() {
@@ -106,4 +287,26 @@ record Action(String action) {
   }
 }
 
-record RegexAction(Regex regex, Action action) {}
+/**
+ * A rule of the specification.
+ *
+ * @param regex the regular expression of the rule
+ * @param action the action of the rule
+ * @param modes the modes the rule is active in, {@link LexSpec#ALL_MODES} for every mode
+ */
+record RegexAction(Regex regex, Action action, List<String> modes) {
+
+  RegexAction(Regex regex, Action action) {
+    this(regex, action, List.of(LexSpec.INITIAL_MODE));
+  }
+
+  /**
+   * Returns whether the rule is active in the given mode.
+   *
+   * @param mode the mode
+   * @return true if the rule is active in the mode, false otherwise
+   */
+  boolean isActiveIn(String mode) {
+    return modes.contains(mode) || modes.contains(LexSpec.ALL_MODES);
+  }
+}
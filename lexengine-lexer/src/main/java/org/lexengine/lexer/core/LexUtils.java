@@ -36,20 +36,62 @@ public final class LexUtils {
   }
 
   /**
-   * Creates an index mapping ranges to unique integers.
+   * Creates an index mapping the disjoint language alphabets to their alphabet equivalence class.
    *
-   * @param ranges a list of ranges
-   * @return a map where each range is associated with a unique integer index
+   * <p>Two ranges share a class when every literal, class and dot of every regular expression
+   * matches either both of them or none of them. Such ranges are indistinguishable to the automaton,
+   * so a single alphabet index is enough for both. This keeps the number of DFA columns small even
+   * when the specification uses large classes, e.g. unicode categories, made of hundreds of ranges.
+   *
+   * <p>The classes are computed by partition refinement: starting with a single class, every set of
+   * ranges matched by a token splits each class into the part inside and the part outside the set.
+   *
+   * @param regexActions a list of regular expression actions
+   * @param languageAlphabets the disjoint set of language alphabets
+   * @return a map where each range is associated with the index of its class
    */
-  static Map<Range, Integer> createAlphabetsIndex(List<Range> ranges) {
+  static Map<Range, Integer> createAlphabetsIndex(
+      List<RegexAction> regexActions, DisjointIntSet languageAlphabets) {
+    List<Range> ranges = languageAlphabets.ranges();
+    Map<Range, Integer> position = new HashMap<>(ranges.size());
+    for (int i = 0; i < ranges.size(); i++) {
+      position.put(ranges.get(i), i);
+    }
+    int[] classOf = new int[ranges.size()];
+    int classesCount = 1;
+    for (RegexAction regexAction : regexActions) {
+      for (List<Range> charSet : regexAction.regex().extractCharSets()) {
+        Map<Integer, Integer> split = new HashMap<>();
+        for (Range range : languageAlphabets.getIntersection(charSet)) {
+          int i = position.get(range);
+          Integer newClass = split.get(classOf[i]);
+          if (newClass == null) {
+            newClass = classesCount++;
+            split.put(classOf[i], newClass);
+          }
+          classOf[i] = newClass;
+        }
+      }
+    }
+    Map<Integer, Integer> denseIndex = new HashMap<>();
     Map<Range, Integer> alphabetIndex = new HashMap<>(ranges.size());
-    int index = 0;
-    for (var range : ranges) {
-      alphabetIndex.put(range, index++);
+    for (int i = 0; i < ranges.size(); i++) {
+      Integer index = denseIndex.computeIfAbsent(classOf[i], c -> denseIndex.size());
+      alphabetIndex.put(ranges.get(i), index);
     }
     return alphabetIndex;
   }
 
+  /**
+   * Returns the number of alphabet classes of the given alphabet index.
+   *
+   * @param alphabetIndex a map where each range is associated with the index of its class
+   * @return the number of distinct class indices
+   */
+  static int alphabetsCount(Map<Range, Integer> alphabetIndex) {
+    return alphabetIndex.values().stream().mapToInt(Integer::intValue).max().orElse(-1) + 1;
+  }
+
   /**
    * Serializes a 2D array into a byte array.
    *
@@ -70,6 +112,23 @@ public final class LexUtils {
     return buffer.array();
   }
 
+  /**
+   * Serializes an array into a byte array.
+   *
+   * <p>Each integer in the array is written as four bytes, in the same format used by {@link
+   * #serialize2DArray(int[][])}.
+   *
+   * @param array the array to be serialized
+   * @return the serialized byte array representation of the input array
+   */
+  public static byte[] serializeArray(int[] array) {
+    ByteBuffer buffer = ByteBuffer.allocate(array.length * 4);
+    for (int value : array) {
+      buffer.putInt(value);
+    }
+    return buffer.array();
+  }
+
   /**
    * Compresses the given byte array using GZIP compression.
    *
@@ -133,6 +192,21 @@ public final class LexUtils {
     }
   }
 
+  /**
+   * Deserializes a byte array into an array of integers.
+   *
+   * @param data the byte array containing the serialized array
+   * @param length the expected length of the array
+   * @return the deserialized array
+   * @throws BufferUnderflowException if the byte array does not contain enough data to fill the
+   *     array
+   */
+  public static int[] deserializeArray(byte[] data, int length) {
+    int[] array = new int[length];
+    ByteBuffer.wrap(data).asIntBuffer().get(array);
+    return array;
+  }
+
   /**
    * Deserializes a byte array into a 2D array of integers.
    *
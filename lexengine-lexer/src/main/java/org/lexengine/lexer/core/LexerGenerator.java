@@ -6,6 +6,8 @@ package org.lexengine.lexer.core;
 
 import java.io.File;
 import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import org.lexengine.commons.error.ErrorType;
 import org.lexengine.commons.error.GeneratorException;
@@ -46,9 +48,10 @@ public class LexerGenerator {
    *
    * <ul>
    *   <li>Parses the lexer specification file
+   *   <li>Moves the keywords into a perfect hash table
    *   <li>Extracts the language alphabets from the regular expressions
-   *   <li>Creates an index of the language alphabets
-   *   <li>Generates an NFA from the regular expressions
+   *   <li>Groups the language alphabets into equivalence classes
+   *   <li>Generates an NFA from the regular expressions of each mode
    *   <li>Converts the NFA to a DFA
    *   <li>Minimizes the DFA
    *   <li>Generates the lexer class
@@ -57,20 +60,65 @@ public class LexerGenerator {
   public void generate() {
     mkdirIfNotExists();
     this.lexSpec = new SpecParser(lexerspecFile).parse();
-    LexUtils.extractAlphabetsFromRegex(lexSpec.regexActionList(), languageAlphabets);
+    List<String> modes = lexSpec.modes();
+    // A keyword reclassifies the lexemes of its host in every mode, so only single mode
+    // specifications move the keywords out of the DFA
+    KeywordTable keywordTable =
+        lexSpec.keywordHash() && modes.size() == 1
+            ? KeywordTable.extract(lexSpec.regexActionList())
+            : KeywordTable.empty(lexSpec.regexActionList());
+    List<RegexAction> regexActions = keywordTable.regexActions();
+    Out.info("Keywords moved to the perfect hash table: %d", keywordTable.size());
+    LexUtils.extractAlphabetsFromRegex(regexActions, languageAlphabets);
     Out.debug("Language alphabets: " + languageAlphabets);
     Map<Range, Integer> alphabetIndex =
-        LexUtils.createAlphabetsIndex(this.languageAlphabets.ranges());
-    Nfa nfa =
-        new NfaGenerator(lexSpec.regexActionList(), languageAlphabets, alphabetIndex).generate();
-    Dfa dfa = new DfaGenerator(nfa).generate();
-    dfa = new DfaMinimizer(dfa).minimize();
+        LexUtils.createAlphabetsIndex(regexActions, languageAlphabets);
+    Out.info(
+        "Alphabet classes computed. Num Ranges: %d, Num Classes: %d",
+        languageAlphabets.size(), LexUtils.alphabetsCount(alphabetIndex));
+    Map<String, Dfa> modeDfas = new LinkedHashMap<>();
+    for (String mode : modes) {
+      Out.info("Generating the DFA of the mode %s", mode);
+      List<RegexAction> modeRegexActions =
+          regexActions.stream().filter(r -> r.isActiveIn(mode)).toList();
+      Nfa nfa = new NfaGenerator(modeRegexActions, languageAlphabets, alphabetIndex).generate();
+      Dfa dfa = new DfaGenerator(nfa).generate();
+      modeDfas.put(mode, new DfaMinimizer(dfa).minimize());
+    }
+    if (lexSpec.lineSeparated()) {
+      verifyLineSeparated(modeDfas);
+    }
     LexClassGenerator lexClassGenerator =
         new TableBasedLexClassGenerator(
-            dfa, lexSpec, Path.of(LexerOptions.outDir), LexerOptions.scannerClassTemplate);
+            modeDfas,
+            lexSpec,
+            keywordTable,
+            Path.of(LexerOptions.outDir),
+            LexerOptions.scannerClassTemplate);
     lexClassGenerator.generate();
   }
 
+  /**
+   * Verifies that every line separator ends a lexeme, so that the scanner restarts in the same
+   * state at every line.
+   *
+   * @param modeDfas the DFA of each mode
+   * @throws GeneratorException if a rule matches past a line separator, or the specification has
+   *     several modes
+   */
+  private void verifyLineSeparated(Map<String, Dfa> modeDfas) {
+    if (modeDfas.size() > 1) {
+      Out.error("A line separated lexer spec can't have modes: %s", modeDfas.keySet());
+      throw GeneratorException.error(ErrorType.ERR_LEX_LINE_SEPARATOR_INVALID);
+    }
+    if (!modeDfas.get(LexSpec.INITIAL_MODE).endsLexemes('\n')) {
+      Out.error(
+          "A rule of the mode %s matches past a line separator in a line separated lexer spec!",
+          LexSpec.INITIAL_MODE);
+      throw GeneratorException.error(ErrorType.ERR_LEX_LINE_SEPARATOR_INVALID);
+    }
+  }
+
   /** Creates the output directory if it does not exist. */
   private void mkdirIfNotExists() {
     Path path = Path.of(LexerOptions.outDir);
@@ -33,7 +33,7 @@ public class Nfa {
   public Nfa(DisjointIntSet languageAlphabets, Map<Range, Integer> alphabetIndex) {
     this.languageAlphabets = languageAlphabets;
     this.alphabetIndex = alphabetIndex;
-    this.alphabetSize = languageAlphabets.size() + 1; // + 1 extra for epsilon
+    this.alphabetSize = LexUtils.alphabetsCount(alphabetIndex) + 1; // + 1 extra for epsilon
     this.transitionTbl = new BitSet[INITIAL_SIZE][this.alphabetSize];
     this.epsilonAlphabetIndex =
         this.alphabetSize - 1; // Last alphabet index is dedicated for epsilon
@@ -85,6 +85,40 @@ public class Nfa {
     return statesCount - 1;
   }
 
+  /**
+   * Returns the id the next created state will get. Every state created from now on has an id
+   * greater than or equal to it, which allows delimiting the states of a sub-automaton.
+   *
+   * @return the id of the next state
+   */
+  int nextStateId() {
+    return statesCount;
+  }
+
+  /**
+   * Copies the states in the range [from, to) along with their transitions into new states. The
+   * transitions of the copied states must stay within the range.
+   *
+   * @param from the first state to copy
+   * @param to the state after the last state to copy
+   * @return the offset to add to the id of a copied state to get the id of its copy
+   */
+  private int copyStates(int from, int to) {
+    int offset = statesCount - from;
+    for (int state = from; state < to; state++) {
+      int copy = createState();
+      for (int alphabet = 0; alphabet < alphabetSize; alphabet++) {
+        BitSet transitions = transitionTbl[state][alphabet];
+        if (transitions != null) {
+          BitSet copiedTransitions = new BitSet(to + offset);
+          transitions.stream().forEach(target -> copiedTransitions.set(target + offset));
+          transitionTbl[copy][alphabet] = copiedTransitions;
+        }
+      }
+    }
+    return offset;
+  }
+
   public int finalStatesCount() {
     return finalStates.cardinality();
   }
@@ -136,8 +170,9 @@ public class Nfa {
     }
     BitSet transitions = null;
     if (pos < input.length()) {
-      char ch = input.charAt(pos);
-      Range range = languageAlphabets.getRange(ch);
+      int codePoint = input.codePointAt(pos);
+      int nextPos = pos + Character.charCount(codePoint);
+      Range range = languageAlphabets.getRange(codePoint);
       Integer alphaIndex = alphabetIndex.get(range);
       if (alphaIndex == null) {
         return null;
@@ -146,7 +181,7 @@ public class Nfa {
       if (transitions != null) {
         Optional<Action> action =
             transitions.stream()
-                .mapToObj(nextState -> testRecursive(input, pos + 1, nextState))
+                .mapToObj(nextState -> testRecursive(input, nextPos, nextState))
                 .filter(Objects::nonNull)
                 .findFirst();
         if (action.isPresent()) {
@@ -182,6 +217,27 @@ public class Nfa {
       finalStates.set(this.accept);
     }
 
+    /**
+     * Creates the copy of the given sub-automaton, whose states were copied with the given offset.
+     *
+     * @param source the copied sub-automaton
+     * @param offset the offset of the copied states
+     */
+    private NfaState(NfaState source, int offset) {
+      this.start = source.start + offset;
+      this.accept = source.accept + offset;
+      this.closureDone = source.closureDone;
+      this.alternateDone = source.alternateDone;
+      finalStates.set(this.accept);
+    }
+
+    NfaState(BitSet alphabets) {
+      this.start = createState();
+      this.accept = createState();
+      alphabets.stream().forEach(alphabet -> addTransition(start, alphabet, accept));
+      finalStates.set(this.accept);
+    }
+
     public int start() {
       return start;
     }
@@ -285,11 +341,69 @@ public class Nfa {
 
       addTransition(newStart, epsilonAlphabetIndex, this.start);
       addTransition(this.accept, epsilonAlphabetIndex, newAccept);
-      addTransition(newStart, epsilonAlphabetIndex, newAccept);
+      addTransition(this.accept, epsilonAlphabetIndex, this.start);
 
       finalStates.set(newAccept);
       this.start = newStart;
       this.accept = newAccept;
     }
+
+    /**
+     * Repeats this sub-automaton between min and max times, max being {@link
+     * RegexToken#UNBOUNDED} for no upper limit.
+     *
+     * <p>The sub-automaton must be the last one created, occupying every state from firstState
+     * onwards. It is copied as a whole rather than rebuilt from the regex, and the optional
+     * occurrences share a single accept state, so the states grow linearly with the count: {m,n}
+     * is built as m mandatory copies followed by n-m nested optional copies, and {m,} as m-1
+     * mandatory copies followed by a copy repeated one or more times.
+     *
+     * @param firstState the first state of this sub-automaton
+     * @param min the minimum number of occurrences
+     * @param max the maximum number of occurrences, or {@link RegexToken#UNBOUNDED}
+     */
+    void repeat(int firstState, int min, int max) {
+      int lastState = statesCount;
+      int copiesCount = max == RegexToken.UNBOUNDED ? Math.max(min, 1) : max;
+      NfaState[] copies = new NfaState[copiesCount];
+      copies[0] = new NfaState(this, 0);
+      for (int i = 1; i < copiesCount; i++) {
+        copies[i] = new NfaState(this, copyStates(firstState, lastState));
+      }
+      if (max == RegexToken.UNBOUNDED) {
+        NfaState last = copies[copiesCount - 1];
+        if (min == 0) {
+          last.closure();
+        } else {
+          last.oneOrMore();
+        }
+      }
+      int mandatoryCount = max == RegexToken.UNBOUNDED ? copiesCount : min;
+      NfaState head = mandatoryCount > 0 ? copies[0] : null;
+      for (int i = 1; i < mandatoryCount; i++) {
+        head.concat(copies[i]);
+      }
+      if (mandatoryCount < copiesCount) {
+        int optionalStart = head != null ? head.accept : createState();
+        int optionalAccept = createState();
+        int cursor = optionalStart;
+        for (int i = mandatoryCount; i < copiesCount; i++) {
+          finalStates.clear(copies[i].accept);
+          addTransition(cursor, epsilonAlphabetIndex, optionalAccept);
+          addTransition(cursor, epsilonAlphabetIndex, copies[i].start);
+          cursor = copies[i].accept;
+        }
+        addTransition(cursor, epsilonAlphabetIndex, optionalAccept);
+        finalStates.clear(optionalStart);
+        finalStates.set(optionalAccept);
+        this.start = head != null ? head.start : optionalStart;
+        this.accept = optionalAccept;
+      } else {
+        this.start = head.start;
+        this.accept = head.accept;
+      }
+      closureDone = max == RegexToken.UNBOUNDED && min == 0;
+      alternateDone = false;
+    }
   }
 }
@@ -4,6 +4,7 @@
 */
 package org.lexengine.lexer.core;
 
+import java.util.BitSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -18,6 +19,12 @@ import org.lexengine.commons.logging.Out;
  */
 public final class NfaGenerator {
 
+  /** Number of NFA states a counted repetition can expand to without a warning. */
+  static final int REPETITION_WARN_STATES = 4096;
+
+  /** Number of NFA states a counted repetition can expand to before the generation stops. */
+  static final int REPETITION_MAX_STATES = 65536;
+
   private final List<RegexAction> regexActions;
   private final DisjointIntSet languageAlphabets;
   private final Map<Range, Integer> alphabetIndex;
@@ -102,6 +109,8 @@ public final class NfaGenerator {
      * @return the generated NFA state
      */
     private Nfa.NfaState generateInternal() {
+      int firstState = nfa.nextStateId();
+      Nfa.NfaState alternatives = null;
       Nfa.NfaState current = null;
       while (regexTknItr.hasNext()) {
         RegexToken token = regexTknItr.next();
@@ -109,21 +118,26 @@ public final class NfaGenerator {
           case RegexToken.Type.Literal -> current = applyLiteral(current, token);
           case RegexToken.Type.LParen -> current = applyLParen(current);
           case RegexToken.Type.RParen -> {
-            applyQuantifierIfPresent(current, token);
-            return current;
+            Nfa.NfaState group =
+                alternatives == null ? current : applyAlternate(alternatives, current);
+            applyQuantifierIfPresent(group, token, firstState);
+            return group;
           }
           case RegexToken.Type.CharClass -> current = applyCharClass(current, token);
           case RegexToken.Type.InvertedCharClass ->
               current = applyInvertedCharClass(current, token);
           case RegexToken.Type.Dot -> current = applyDot(current, token);
-          case RegexToken.Type.Bar -> applyAlternate(current);
+          case RegexToken.Type.Bar -> {
+            alternatives = applyAlternate(alternatives, current);
+            current = null;
+          }
           default -> {
             Out.error("Unrecognized regular expression token %s", token.type());
             throw GeneratorException.error(ErrorType.ERR_LEX_REGEX_INVALID);
           }
         }
       }
-      return current;
+      return alternatives == null ? current : applyAlternate(alternatives, current);
     }
 
     /**
@@ -150,7 +164,7 @@ public final class NfaGenerator {
      */
     private Nfa.NfaState applyLiteral(Nfa.NfaState current, RegexToken token) {
       Nfa.NfaState state = nfa.new NfaState(alphabetIndex.get(token.range()));
-      applyQuantifierIfPresent(state, token);
+      applyQuantifierIfPresent(state, token, state.start());
       if (current == null) {
         return state;
       }
@@ -183,19 +197,24 @@ public final class NfaGenerator {
     }
 
     /**
-     * Applies an inverted character class token to the current NFA state.
+     * Applies an inverted character class token to the current NFA state. The complement of the
+     * class ranges is part of the language alphabets, hence the class matches every alphabet range
+     * within the complement.
      *
      * @param current the current NFA state
      * @param token the inverted character class token
      * @return the updated NFA state
      */
     private Nfa.NfaState applyInvertedCharClass(Nfa.NfaState current, RegexToken token) {
-      List<Range> difference = languageAlphabets.getDifference(token.ranges());
-      return applyCharClass(current, token, difference);
+      List<Range> complement =
+          languageAlphabets.getIntersection(DisjointIntSet.complement(token.ranges()));
+      return applyCharClass(current, token, complement);
     }
 
     /**
-     * Applies a character class token to the current NFA state using the specified ranges.
+     * Applies a character class token to the current NFA state using the specified ranges. Ranges
+     * sharing the same alphabet class contribute a single transition, hence even a class made of
+     * hundreds of ranges results in a single pair of states.
      *
      * @param current the current NFA state
      * @param token the character class token
@@ -204,34 +223,45 @@ public final class NfaGenerator {
      */
     private Nfa.NfaState applyCharClass(
         Nfa.NfaState current, RegexToken token, List<Range> ranges) {
-      Iterator<Range> rangeItr = ranges.iterator();
-      Range first = rangeItr.next();
-      var firstState = nfa.new NfaState(alphabetIndex.get(first));
-      while (rangeItr.hasNext()) {
-        firstState.alternate(nfa.new NfaState(alphabetIndex.get(rangeItr.next())));
+      BitSet alphabets = new BitSet();
+      for (Range range : ranges) {
+        alphabets.set(alphabetIndex.get(range));
       }
-      applyQuantifierIfPresent(firstState, token);
+      if (alphabets.isEmpty()) {
+        Out.error(
+            "Invalid regex %s. Contains a class matching no character",
+            regexAction.regex().toString());
+        throw GeneratorException.error(ErrorType.ERR_LEX_REGEX_INVALID);
+      }
+      var state = nfa.new NfaState(alphabets);
+      applyQuantifierIfPresent(state, token, state.start());
       if (current == null) {
-        return firstState;
+        return state;
       }
-      current.concat(firstState);
+      current.concat(state);
       return current;
     }
 
     /**
-     * Applies an alternate token to the current NFA state.
+     * Alternates the current NFA state with the previous alternatives of the same group. The
+     * alternatives of a group are collected until the group ends, so that a quantifier following
+     * the group applies to all of them.
      *
+     * @param alternatives the previous alternatives of the group, or null if there is none
      * @param current the current NFA state
+     * @return the alternation of the previous alternatives and the current NFA state
      */
-    private void applyAlternate(Nfa.NfaState current) {
+    private Nfa.NfaState applyAlternate(Nfa.NfaState alternatives, Nfa.NfaState current) {
       if (current == null) {
         Out.error(
-            "Invalid regex %s. Contains invalid escape sequence character",
-            regexAction.regex().toString());
+            "Invalid regex %s. Contains an empty alternative", regexAction.regex().toString());
         throw GeneratorException.error(ErrorType.ERR_LEX_REGEX_INVALID);
       }
-      Nfa.NfaState state = generateInternal();
-      current.alternate(state);
+      if (alternatives == null) {
+        return current;
+      }
+      alternatives.alternate(current);
+      return alternatives;
     }
 
     /**
@@ -239,8 +269,9 @@ public final class NfaGenerator {
      *
      * @param state the NFA state to apply the quantifier to
      * @param token the token containing the quantifier information
+     * @param firstState the first state of the sub-automaton of the NFA state
      */
-    private void applyQuantifierIfPresent(Nfa.NfaState state, RegexToken token) {
+    private void applyQuantifierIfPresent(Nfa.NfaState state, RegexToken token, int firstState) {
       if (!token.hasQuantifier()) {
         return;
       }
@@ -248,11 +279,40 @@ public final class NfaGenerator {
         case '*' -> state.closure();
         case '?' -> state.zeroOrOne();
         case '+' -> state.oneOrMore();
+        case '{' -> applyRepetition(state, token, firstState);
         default -> {
           Out.error("Unrecognized quantifier %s", token.quantifier());
           throw GeneratorException.error(ErrorType.ERR_LEX_REGEX_ERR);
         }
       }
     }
+
+    /**
+     * Applies a counted repetition {min,max} to the specified NFA state. The sub-automaton is
+     * copied once per occurrence, hence the expansion is checked against {@link
+     * #REPETITION_WARN_STATES} and {@link #REPETITION_MAX_STATES} first.
+     *
+     * @param state the NFA state to repeat
+     * @param token the token containing the repetition bounds
+     * @param firstState the first state of the sub-automaton of the NFA state
+     */
+    private void applyRepetition(Nfa.NfaState state, RegexToken token, int firstState) {
+      int min = token.minRepeat();
+      int max = token.maxRepeat();
+      int copies = max == RegexToken.UNBOUNDED ? Math.max(min, 1) : max;
+      long expandedStates = (long) (nfa.nextStateId() - firstState) * copies;
+      if (expandedStates > REPETITION_MAX_STATES) {
+        Out.error(
+            "Repetition in the regex %s expands to %d NFA states, exceeding the limit of %d",
+            regexAction.regex(), expandedStates, REPETITION_MAX_STATES);
+        throw GeneratorException.error(ErrorType.ERR_LEX_REGEX_REPETITION_LIMIT);
+      }
+      if (expandedStates > REPETITION_WARN_STATES) {
+        Out.warn(
+            "Repetition in the regex %s expands to %d NFA states, consider lowering the count",
+            regexAction.regex(), expandedStates);
+      }
+      state.repeat(firstState, min, max);
+    }
   }
 }
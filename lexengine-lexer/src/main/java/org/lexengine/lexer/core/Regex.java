@@ -4,8 +4,8 @@
 */
 package org.lexengine.lexer.core;
 
+import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -25,6 +25,7 @@ public class Regex implements Iterable<RegexToken> {
    *   <li>* matches zero or more occurrence of the preceding element
    *   <li>+ matches one or more occurrence of the preceding element
    *   <li>? matches zero or one occurrence of the preceding element
+   *   <li>{m,n} matches between m and n occurrences of the preceding element
    *   <li>. matches any single char
    * </ul>
    */
@@ -44,18 +45,23 @@ public class Regex implements Iterable<RegexToken> {
           'f', '\f');
 
   /** A set of quantifiers used in regular expressions. */
-  private static final Set<Character> QUANTIFIERS = Set.of('*', '+', '?', '{', '}');
+  private static final Set<Character> QUANTIFIERS = Set.of('*', '+', '?', '{');
 
   /** The underlying string representation of the regular expression. */
   private final String val;
 
+  /** Whether the literals and classes match the case variants of their characters too. */
+  private final boolean caseInsensitive;
+
   /**
    * Constructs a new Regex instance from a given string.
    *
    * @param val the string representation of the regular expression
+   * @param caseInsensitive whether the regular expression ignores the case
    */
-  private Regex(String val) {
+  private Regex(String val, boolean caseInsensitive) {
     this.val = val;
+    this.caseInsensitive = caseInsensitive;
   }
 
   /**
@@ -65,7 +71,28 @@ public class Regex implements Iterable<RegexToken> {
    * @return a new Regex instance
    */
   public static Regex fromString(String regex) {
-    return new Regex(regex);
+    return new Regex(regex, false);
+  }
+
+  /**
+   * Creates a new Regex instance from a given string, optionally ignoring the case. The literals
+   * and classes of a case-insensitive regular expression are folded by {@link CaseFolding}.
+   *
+   * @param regex the string representation of the regular expression
+   * @param caseInsensitive whether the regular expression ignores the case
+   * @return a new Regex instance
+   */
+  public static Regex fromString(String regex, boolean caseInsensitive) {
+    return new Regex(regex, caseInsensitive);
+  }
+
+  /**
+   * Returns whether the regular expression ignores the case.
+   *
+   * @return true if the regular expression is case-insensitive, false otherwise
+   */
+  public boolean isCaseInsensitive() {
+    return caseInsensitive;
   }
 
   /**
@@ -89,38 +116,57 @@ public class Regex implements Iterable<RegexToken> {
   /**
    * Extracts all alphabetic ranges from the regular expression.
    *
+   * <p>Inverted character classes contribute the complement of their ranges over the whole code
+   * point space, so that the characters they match are part of the language alphabets.
+   *
    * @return a list of extracted ranges
    */
   public List<Range> extractAlphabets() {
-    Iterator<RegexToken> itr = iterator();
-    List<Range> ranges = new LinkedList<>();
+    List<Range> ranges = new ArrayList<>();
+    extractCharSets().forEach(ranges::addAll);
+    return ranges;
+  }
 
+  /**
+   * Extracts the set of code points matched by each literal, class and dot of the regular
+   * expression.
+   *
+   * <p>Unlike {@link #extractAlphabets()}, the ranges of every token are kept apart. Two code points
+   * that belong to exactly the same sets are interchangeable for the whole expression, which allows
+   * them to share a single alphabet index.
+   *
+   * @return a list of the ranges matched by each token
+   */
+  public List<List<Range>> extractCharSets() {
+    List<List<Range>> charSets = new ArrayList<>();
     boolean widerRangeAdded = false;
-    while (itr.hasNext()) {
-      RegexToken token = itr.next();
-      if (token.type().isMetaChar()) {
-        if (token.type() == RegexToken.Type.Dot && !widerRangeAdded) {
-          // From space till ~ symbol. This includes symbols, both lower and upper case alphabets
-          // and digits.
-          ranges.add(Range.of(32, 126));
-          widerRangeAdded = true;
+    for (RegexToken token : this) {
+      switch (token.type()) {
+        case Literal -> charSets.add(List.of(token.range()));
+        case CharClass -> charSets.add(token.ranges());
+        case InvertedCharClass -> charSets.add(DisjointIntSet.complement(token.ranges()));
+        case Dot -> {
+          if (!widerRangeAdded) {
+            charSets.add(List.of(Range.of(0, Character.MAX_CODE_POINT)));
+            widerRangeAdded = true;
+          }
         }
-        continue;
-      }
-      if (token.chVal() != '\0') {
-        ranges.add(Range.of(token.chVal()));
-      } else {
-        ranges.addAll(token.ranges());
+        default -> {}
       }
     }
-    return ranges;
+    return charSets;
   }
 
   /**
    * An iterator implementation for iterating over the individual tokens in the regular expression.
+   * The regular expression is read code point by code point, so supplementary characters are
+   * handled as a single literal.
    */
   public class RegexIterator implements Iterator<RegexToken> {
 
+    /** Marker returned when the end of the regular expression is reached. */
+    private static final int EOF = -1;
+
     /** The current position within the regular expression string. */
     private int pos;
 
@@ -129,24 +175,29 @@ public class Regex implements Iterable<RegexToken> {
     }
 
     /**
-     * Peeks at the next character without advancing the position.
+     * Peeks at the next code point without advancing the position.
      *
-     * @return the next character, or '\0' if at the end of the string
+     * @return the next code point, or EOF if at the end of the string
      */
-    private char peek() {
+    private int peek() {
       if (pos >= val.length()) {
-        return '\0';
+        return EOF;
       }
-      return val.charAt(pos);
+      return val.codePointAt(pos);
     }
 
     /**
-     * Advances to the next character and returns its value.
+     * Advances to the next code point and returns its value.
      *
-     * @return the next character, or '\0' if at the end of the string
+     * @return the next code point, or EOF if at the end of the string
      */
-    private char advance() {
-      return hasNext() ? val.charAt(pos++) : '\0';
+    private int advance() {
+      if (!hasNext()) {
+        return EOF;
+      }
+      int codePoint = val.codePointAt(pos);
+      pos += Character.charCount(codePoint);
+      return codePoint;
     }
 
     @Override
@@ -159,26 +210,164 @@ public class Regex implements Iterable<RegexToken> {
       if (!hasNext()) {
         return null;
       }
-      char literal = advance();
+      RegexToken token = nextToken();
+      return caseInsensitive ? foldCase(token) : token;
+    }
+
+    /**
+     * Replaces the ranges of a literal or class token with their case folded ranges.
+     *
+     * @param token the token to fold
+     * @return the folded token, or the given token if it matches no cased character
+     */
+    private RegexToken foldCase(RegexToken token) {
+      List<Range> ranges =
+          switch (token.type()) {
+            case Literal -> List.of(token.range());
+            case CharClass, InvertedCharClass -> token.ranges();
+            default -> null;
+          };
+      if (ranges == null) {
+        return token;
+      }
+      List<Range> folded = CaseFolding.fold(ranges);
+      if (token.type() == RegexToken.Type.Literal && folded.equals(ranges)) {
+        return token;
+      }
+      boolean inverted = token.type() == RegexToken.Type.InvertedCharClass;
+      return RegexToken.ofClass(folded, inverted, token.quantifier())
+          .withRepetition(token.minRepeat(), token.maxRepeat());
+    }
+
+    /**
+     * Reads the next token of the regular expression.
+     *
+     * @return the next token
+     */
+    private RegexToken nextToken() {
+      int literal = advance();
       if (literal == '[') {
         return convertCharClasses();
       }
       boolean escaped = false;
+      if (literal == '\\' && isCategoryEscape()) {
+        boolean negated = advance() == 'P';
+        return parseRepetition(RegexToken.ofClass(parseCategory(), negated, detectQuantifier()));
+      }
       if (literal == '\\') {
-        char next = advance();
-        if (next == '\0') {
-          Out.error("Invalid regex \"%s\" Contains illegal escape sequence character", val);
-          throw GeneratorException.error(ErrorType.ERR_LEX_REGEX_INVALID);
+        literal = parseEscape();
+        escaped = true;
+      }
+      return parseRepetition(RegexToken.ofLiteral(literal, detectQuantifier(), escaped));
+    }
+
+    /**
+     * Parses the escape sequence following a backslash. Besides the simple escapes and the escaped
+     * meta characters, the unicode escapes <code>&#92;uXXXX</code> and <code>&#92;x{X...}</code>
+     * are supported. A <code>&#92;uXXXX</code> high surrogate directly followed by a <code>
+     * &#92;uXXXX</code> low surrogate is combined into a single supplementary code point.
+     *
+     * @return the code point denoted by the escape sequence
+     */
+    private int parseEscape() {
+      int next = advance();
+      if (next == EOF) {
+        Out.error("Invalid regex \"%s\" Contains illegal escape sequence character", val);
+        throw GeneratorException.error(ErrorType.ERR_LEX_REGEX_INVALID);
+      }
+      if (next == 'u') {
+        int codePoint = parseHex(4, 4, EOF);
+        if (Character.isHighSurrogate((char) codePoint) && val.startsWith("\\u", pos)) {
+          int mark = pos;
+          pos += 2;
+          int low = parseHex(4, 4, EOF);
+          if (Character.isLowSurrogate((char) low)) {
+            return Character.toCodePoint((char) codePoint, (char) low);
+          }
+          pos = mark;
         }
-        Character escapeLiteral = ESCAPE_CHAR_MAP.get(next);
-        if (!META_CHARS.contains(next) && escapeLiteral == null) {
-          Out.error("Invalid regex \"%s\" Contains invalid escape sequence character", val);
+        return codePoint;
+      }
+      if (next == 'x') {
+        if (advance() != '{') {
+          Out.error("Invalid regex \"%s\" Expected '{' after the escape character x", val);
           throw GeneratorException.error(ErrorType.ERR_LEX_REGEX_INVALID);
         }
-        literal = escapeLiteral != null ? escapeLiteral : next;
-        escaped = true;
+        return parseHex(1, 6, '}');
+      }
+      if (next >= Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+        Out.error("Invalid regex \"%s\" Contains invalid escape sequence character", val);
+        throw GeneratorException.error(ErrorType.ERR_LEX_REGEX_INVALID);
+      }
+      Character escapeLiteral = ESCAPE_CHAR_MAP.get((char) next);
+      if (escapeLiteral != null) {
+        return escapeLiteral;
+      }
+      if (!META_CHARS.contains((char) next) && next != '-') {
+        Out.error("Invalid regex \"%s\" Contains invalid escape sequence character", val);
+        throw GeneratorException.error(ErrorType.ERR_LEX_REGEX_INVALID);
       }
-      return RegexToken.ofLiteral(literal, detectQuantifier(), escaped);
+      return next;
+    }
+
+    /**
+     * Returns whether the backslash just read starts a unicode category class, which is either
+     * <code>&#92;p{..}</code> or its negation <code>&#92;P{..}</code>.
+     *
+     * @return true if the next code point is 'p' or 'P', false otherwise
+     */
+    private boolean isCategoryEscape() {
+      return peek() == 'p' || peek() == 'P';
+    }
+
+    /**
+     * Parses the braced name of a unicode general category, e.g. {L} or {Nd}, and resolves it
+     * into its code point ranges.
+     *
+     * @return the sorted ranges of the category
+     */
+    private List<Range> parseCategory() {
+      if (advance() != '{') {
+        Out.error("Invalid regex \"%s\" Expected '{' after the unicode category escape", val);
+        throw GeneratorException.error(ErrorType.ERR_LEX_REGEX_INVALID);
+      }
+      int end = val.indexOf('}', pos);
+      if (end == -1) {
+        Out.error("Invalid regex \"%s\" Unterminated unicode category", val);
+        throw GeneratorException.error(ErrorType.ERR_LEX_REGEX_INVALID);
+      }
+      String name = val.substring(pos, end);
+      pos = end + 1;
+      List<Range> ranges = UnicodeCategories.ranges(name);
+      if (ranges == null) {
+        Out.error("Invalid regex \"%s\" Unknown unicode category %s", val, name);
+        throw GeneratorException.error(ErrorType.ERR_LEX_REGEX_INVALID);
+      }
+      return ranges;
+    }
+
+    /**
+     * Parses a hexadecimal code point of the given number of digits.
+     *
+     * @param minDigits the minimum number of hex digits
+     * @param maxDigits the maximum number of hex digits
+     * @param terminator the code point terminating the digits, or EOF if fixed width
+     * @return the parsed code point
+     */
+    private int parseHex(int minDigits, int maxDigits, int terminator) {
+      int codePoint = 0;
+      int digits = 0;
+      while (digits < maxDigits && peek() != terminator && Character.digit(peek(), 16) != -1) {
+        codePoint = (codePoint << 4) | Character.digit(advance(), 16);
+        digits++;
+      }
+      if (digits < minDigits
+          || (terminator != EOF && advance() != terminator)
+          || codePoint > Character.MAX_CODE_POINT) {
+        Out.error("Invalid regex \"%s\" Contains invalid unicode escape sequence", val);
+        throw GeneratorException.error(ErrorType.ERR_LEX_REGEX_INVALID);
+      }
+      return codePoint;
     }
 
     /**
@@ -187,71 +376,127 @@ public class Regex implements Iterable<RegexToken> {
      * @return the detected quantifier, or '\0' if none found
      */
     private char detectQuantifier() {
-      if (QUANTIFIERS.contains(peek())) {
-        return advance();
+      int next = peek();
+      if (next != EOF
+          && next < Character.MIN_SUPPLEMENTARY_CODE_POINT
+          && QUANTIFIERS.contains((char) next)) {
+        return (char) advance();
       }
       return '\0';
     }
 
+    /**
+     * Parses the bounds of a counted repetition {m}, {m,} or {m,n} if it quantifies the given
+     * token. The opening brace has already been consumed by {@link #detectQuantifier()}.
+     *
+     * @param token the quantified token
+     * @return the given token
+     */
+    private RegexToken parseRepetition(RegexToken token) {
+      if (token.quantifier() != '{') {
+        return token;
+      }
+      int min = parseCount();
+      int max = min;
+      if (peek() == ',') {
+        advance();
+        max = peek() == '}' ? RegexToken.UNBOUNDED : parseCount();
+      }
+      if (advance() != '}') {
+        Out.error("Invalid regex \"%s\" Unterminated repetition", val);
+        throw GeneratorException.error(ErrorType.ERR_LEX_REGEX_INVALID);
+      }
+      if (max != RegexToken.UNBOUNDED && (max < min || max == 0)) {
+        Out.error("Invalid regex \"%s\" Invalid repetition {%d,%d}", val, min, max);
+        throw GeneratorException.error(ErrorType.ERR_LEX_REGEX_INVALID);
+      }
+      return token.withRepetition(min, max);
+    }
+
+    /**
+     * Parses the decimal count of a counted repetition.
+     *
+     * @return the parsed count
+     */
+    private int parseCount() {
+      int count = 0;
+      int digits = 0;
+      while (peek() >= '0' && peek() <= '9') {
+        count = count * 10 + (advance() - '0');
+        if (++digits > 6) {
+          Out.error("Invalid regex \"%s\" Repetition count is too large", val);
+          throw GeneratorException.error(ErrorType.ERR_LEX_REGEX_INVALID);
+        }
+      }
+      if (digits == 0) {
+        Out.error("Invalid regex \"%s\" Expected a number in the repetition", val);
+        throw GeneratorException.error(ErrorType.ERR_LEX_REGEX_INVALID);
+      }
+      return count;
+    }
+
     /**
      * Converts a character class into a RegexToken instance.
      *
      * @return the converted RegexToken instance
      */
     private RegexToken convertCharClasses() {
-      char literal = advance();
+      int literal = advance();
       boolean inverted = false;
       if (literal == '^') {
         inverted = true;
         literal = advance();
       }
-      if (literal == '\0' || literal == ']' || literal == '-') {
+      if (literal == EOF || literal == ']' || literal == '-') {
         Out.error("Invalid regex %s", val);
         throw GeneratorException.error(ErrorType.ERR_LEX_REGEX_INVALID);
       }
-      List<Range> ranges = new LinkedList<>();
-      while (literal != '\0' && literal != ']') {
+      List<Range> ranges = new ArrayList<>();
+      while (literal != EOF && literal != ']') {
+        if (literal == '\\' && isCategoryEscape()) {
+          boolean negated = advance() == 'P';
+          List<Range> category = parseCategory();
+          ranges.addAll(negated ? DisjointIntSet.complement(category) : category);
+          literal = advance();
+          continue;
+        }
+        if (literal == '\\') {
+          literal = parseEscape();
+        }
         if (peek() == '-') {
           ranges.add(parseRange(literal));
-        } else if (literal == '\\') {
-          literal = advance();
-          Character escapedCh = ESCAPE_CHAR_MAP.get(literal);
-          if (escapedCh == null) {
-            Out.error("Invalid regex \"%s\"", val);
-            throw GeneratorException.error(ErrorType.ERR_LEX_REGEX_INVALID);
-          }
-          literal = escapedCh;
-          ranges.add(Range.of(literal));
         } else {
           ranges.add(Range.of(literal));
         }
         literal = advance();
       }
-      return RegexToken.ofClass(ranges, inverted, detectQuantifier());
+      if (literal == EOF) {
+        Out.error("Invalid regex %s Unterminated char class", val);
+        throw GeneratorException.error(ErrorType.ERR_LEX_REGEX_INVALID);
+      }
+      return parseRepetition(RegexToken.ofClass(ranges, inverted, detectQuantifier()));
     }
 
     /**
-     * Parses a range within a character class.
+     * Parses a range within a character class. The bounds can be any code point, including
+     * escaped ones, as long as the left bound is lower than the right bound.
      *
      * @param left the starting point of the range
      * @return the parsed range instance
      */
-    private Range parseRange(char left) {
-      next(); // Ignore '-'
-      char right = advance();
-      if (!(Character.isLetterOrDigit(left) && Character.isLetterOrDigit(right))) {
-        Out.error(
-            "Invalid char class in the regex %s Only letters and digits allowed in the range class",
-            val);
+    private Range parseRange(int left) {
+      advance(); // Ignore '-'
+      int right = advance();
+      if (right == EOF || right == ']') {
+        Out.error("Invalid char class in the regex %s Range class is not closed", val);
         throw GeneratorException.error(ErrorType.ERR_LEX_REGEX_INVALID);
       }
-      if (Character.isDigit(left) ^ Character.isDigit(right)) {
-        Out.error(
-            "Invalid char class in the regex %s Cannot mix digit and letter in range class", val);
-        throw GeneratorException.error(ErrorType.ERR_LEX_REGEX_INVALID);
+      if (right == '\\') {
+        right = parseEscape();
       }
       if (left >= right) {
-        Out.error("Invalid char class in the regex %s range class values cannot be same", val);
+        Out.error(
+            "Invalid char class in the regex %s range class start must be lower than the end", val);
         throw GeneratorException.error(ErrorType.ERR_LEX_REGEX_INVALID);
       }
       return Range.of(left, right);
@@ -32,34 +32,39 @@ public class RegexToken {
     }
   }
 
+  /** Maximum number of occurrences of a repetition without an upper limit, e.g. {2,}. */
+  public static final int UNBOUNDED = -1;
+
   private Type type;
-  private char chVal;
+  private int chVal;
   private List<Range> ranges;
   private Range range;
-  // Currently range quantifier {min, max} is not supported
   private char quantifier;
+  // Number of occurrences of the counted repetition {min,max}, used when the quantifier is '{'
+  private int minRepeat;
+  private int maxRepeat;
 
   /** Private constructor to prevent direct instantiation. Use the factory methods instead. */
   private RegexToken() {}
 
   /**
-   * Creates a new literal token from a given character.
+   * Creates a new literal token from a given code point.
    *
-   * @param literal the character to represent as a literal token
+   * @param literal the code point to represent as a literal token
    * @return a new RegexToken instance
    */
-  public static RegexToken ofLiteral(char literal) {
+  public static RegexToken ofLiteral(int literal) {
     return ofLiteral(literal, '\0', false);
   }
 
   /**
-   * Creates a new literal token from a given character and optional quantifier.
+   * Creates a new literal token from a given code point and optional quantifier.
    *
-   * @param literal the character to represent as a literal token
+   * @param literal the code point to represent as a literal token
    * @param quantifier the quantifier to apply to the token, or '\0' for no quantifier
    * @return a new RegexToken instance
    */
-  public static RegexToken ofLiteral(char literal, char quantifier, boolean escaped) {
+  public static RegexToken ofLiteral(int literal, char quantifier, boolean escaped) {
     RegexToken token = new RegexToken();
     token.quantifier = quantifier;
     token.chVal = literal;
@@ -75,7 +80,7 @@ public class RegexToken {
               default -> Type.Literal;
             };
     if ((token.type == Type.Bar || token.type == Type.LParen) && token.quantifier != '\0') {
-      Out.error("Invalid regular expression: " + literal);
+      Out.error("Invalid regular expression: " + Character.toString(literal));
       throw GeneratorException.error(ErrorType.ERR_LEX_REGEX_ERR);
     }
     return token;
@@ -98,6 +103,19 @@ public class RegexToken {
     return token;
   }
 
+  /**
+   * Sets the number of occurrences of the counted repetition {min,max} quantifying this token.
+   *
+   * @param min the minimum number of occurrences
+   * @param max the maximum number of occurrences, or {@link #UNBOUNDED} for no upper limit
+   * @return this token
+   */
+  RegexToken withRepetition(int min, int max) {
+    this.minRepeat = min;
+    this.maxRepeat = max;
+    return this;
+  }
+
   /**
    * Returns the type of this token.
    *
@@ -126,11 +144,11 @@ public class RegexToken {
   }
 
   /**
-   * Returns the character value associated with this token, if it is a literal token.
+   * Returns the code point associated with this token, if it is a literal token.
    *
-   * @return the character value, or '\0' if this token is not a literal token
+   * @return the code point, or '\0' if this token is not a literal token
    */
-  public char chVal() {
+  public int chVal() {
     return chVal;
   }
 
@@ -151,4 +169,22 @@ public class RegexToken {
   public char quantifier() {
     return quantifier;
   }
+
+  /**
+   * Returns the minimum number of occurrences, if the quantifier is a counted repetition.
+   *
+   * @return the minimum number of occurrences
+   */
+  public int minRepeat() {
+    return minRepeat;
+  }
+
+  /**
+   * Returns the maximum number of occurrences, if the quantifier is a counted repetition.
+   *
+   * @return the maximum number of occurrences, or {@link #UNBOUNDED} if there is no upper limit
+   */
+  public int maxRepeat() {
+    return maxRepeat;
+  }
 }
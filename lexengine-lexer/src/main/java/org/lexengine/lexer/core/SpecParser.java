@@ -7,6 +7,9 @@ package org.lexengine.lexer.core;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -24,6 +27,10 @@ public class SpecParser {
   /** Comment prefix used to ignore lines starting with it. */
   private static final char COMMENT = '#';
 
+  /** Pattern of the names of the types of the properties imports and implements. */
+  private static final Pattern TYPE_NAME_PATTERN =
+      Pattern.compile("[A-Za-z_$][\\w$]*(?:\\.[A-Za-z_$][\\w$]*)*");
+
   private final File specFile;
   private final LexSpec.Builder specBuilder;
   private int lineCount;
@@ -89,6 +96,7 @@ public class SpecParser {
         Out.error("No regex entries found in the Lexer Spec file %s", specFile);
         throw GeneratorException.error(ErrorType.ERR_LEX_REGEX_NO_ENTRY);
       }
+      validateModes();
     } catch (IOException e) {
       Out.error("Error reading the Lexer Spec file %s", specFile);
       throw GeneratorException.error(ErrorType.ERR_LEX_SPEC_FILE_READ);
@@ -96,6 +104,26 @@ public class SpecParser {
     return specBuilder.build();
   }
 
+  /**
+   * Validates that every mode entered by a rule has rules of its own.
+   *
+   * @throws GeneratorException if a rule enters an unknown mode
+   */
+  private void validateModes() {
+    LexSpec lexSpec = specBuilder.build();
+    List<String> modes = lexSpec.modes();
+    for (RegexAction regexAction : lexSpec.regexActionList()) {
+      for (Action.ModeCommand command : regexAction.action().modeCommands()) {
+        if (command.mode() != null && !modes.contains(command.mode())) {
+          Out.error(
+              "The rule %s enters the mode %s which has no rules!",
+              regexAction.regex(), command.mode());
+          throw GeneratorException.error(ErrorType.ERR_LEX_RULE_COMMAND_INVALID);
+        }
+      }
+    }
+  }
+
   /** For parsing line for various sections in the spec file. */
   private interface LineParser {
     void parseLine(String line);
@@ -127,6 +155,12 @@ public class SpecParser {
         case "package" -> specBuilder.lexPackageName(propValue);
         case "methodName" -> specBuilder.methodName(propValue);
         case "returnType" -> specBuilder.returnType(propValue);
+        case "caseInsensitive" -> specBuilder.caseInsensitive(parseBoolean(line, propValue));
+        case "keywordHash" -> specBuilder.keywordHash(parseBoolean(line, propValue));
+        case "lineSeparated" -> specBuilder.lineSeparated(parseBoolean(line, propValue));
+        case "features" -> parseFeatures(line, propValue);
+        case "imports" -> parseTypes(line, propValue).forEach(specBuilder::addImport);
+        case "implements" -> parseTypes(line, propValue).forEach(specBuilder::addInterface);
         default -> {
           Out.error(
               "Invalid property line: '%s' in the lexer spec file at line %d!", line, lineCount);
@@ -136,9 +170,98 @@ public class SpecParser {
     }
   }
 
+  /**
+   * Parses a boolean property value, which must be either true or false.
+   *
+   * @param line the property line
+   * @param value the property value
+   * @return the parsed boolean value
+   * @throws GeneratorException if the value is not a boolean
+   */
+  private boolean parseBoolean(String line, String value) {
+    if (!"true".equals(value) && !"false".equals(value)) {
+      Out.error(
+          "Invalid boolean property line: '%s' in the lexer spec file at line %d!",
+          line,
+          lineCount);
+      throw GeneratorException.error(ErrorType.ERR_LEX_PROPERTY_ERR);
+    }
+    return Boolean.parseBoolean(value);
+  }
+
+  /**
+   * Parses the comma-separated names of the optional features rendered into the lexer.
+   *
+   * @param line the property line
+   * @param value the property value
+   * @throws GeneratorException if a name is not the name of a feature
+   */
+  private void parseFeatures(String line, String value) {
+    for (String name : value.split(",")) {
+      LexSpec.Feature feature =
+          Arrays.stream(LexSpec.Feature.values())
+              .filter(f -> f.id().equals(name.trim()))
+              .findFirst()
+              .orElse(null);
+      if (feature == null) {
+        Out.error(
+            "Invalid feature '%s' in the property line: '%s' in the lexer spec file at line %d!",
+            name.trim(),
+            line,
+            lineCount);
+        throw GeneratorException.error(ErrorType.ERR_LEX_PROPERTY_ERR);
+      }
+      specBuilder.feature(feature);
+    }
+  }
+
+  /**
+   * Parses the comma-separated names of the types of a property, which must be Java type names,
+   * qualified or not.
+   *
+   * @param line the property line
+   * @param value the property value
+   * @return the names of the types, in order
+   * @throws GeneratorException if a name is not a type name
+   */
+  private List<String> parseTypes(String line, String value) {
+    List<String> types = new ArrayList<>();
+    for (String name : value.split(",")) {
+      if (!TYPE_NAME_PATTERN.matcher(name.trim()).matches()) {
+        Out.error(
+            "Invalid type '%s' in the property line: '%s' in the lexer spec file at line %d!",
+            name.trim(),
+            line,
+            lineCount);
+        throw GeneratorException.error(ErrorType.ERR_LEX_PROPERTY_ERR);
+      }
+      types.add(name.trim());
+    }
+    return types;
+  }
+
   private class RegexLineParser implements LineParser {
 
-    private static final Pattern PATTERN = Pattern.compile("\"(.*?)\"\\s*\\{(.*?)}");
+    /**
+     * A regex line is the optional modes of the rule within angle brackets, the optional name of
+     * the token type, the quoted regular expression, optionally followed by the flag i making it
+     * case-insensitive, the action within braces and the commands of the rule after an arrow, e.g.
+     * <code>&lt;STRING&gt; STRING_END "\"" -&gt; popMode</code>. Either the action or the commands
+     * must be present.
+     */
+    private static final Pattern PATTERN =
+        Pattern.compile(
+            "(?:<([^>]*)>\\s*)?([A-Za-z_]\\w*)?\\s*\"(.*?)\"(i?)\\s*(?:\\{(.*?)})?\\s*"
+                + "(?:->(.*?))?\\s*");
+
+    /** Name of the token type returned at the end of input, which a rule can't use. */
+    private static final String EOF_TYPE_NAME = "EOF";
+
+    /** A command is a name, optionally followed by an argument within parentheses. */
+    private static final Pattern COMMAND_PATTERN = Pattern.compile("(\\w+)(?:\\((\\w*)\\))?");
+
+    /** Pattern of the mode names, which become part of the generated mode constants. */
+    private static final Pattern MODE_PATTERN = Pattern.compile("[A-Za-z_]\\w*");
 
     /**
      * Parses a regular expression line from the lexer spec file.
@@ -149,15 +272,105 @@ public class SpecParser {
     @Override
     public void parseLine(String line) {
       Matcher matcher = PATTERN.matcher(line);
-      if (!matcher.matches()) {
+      if (!matcher.matches()
+          || (matcher.group(5) == null && matcher.group(6) == null)
+          || EOF_TYPE_NAME.equals(matcher.group(2))) {
         Out.error("Invalid regex line: '%s' in the lexer spec file at line %d!", line, lineCount);
         throw GeneratorException.error(ErrorType.ERR_LEX_REGEX_ERR);
       }
-      String regexStr = matcher.group(1);
-      Regex regex = Regex.fromString(regexStr);
-      String actionStr = matcher.group(2);
-      Action action = new Action("{" + actionStr + "}");
-      specBuilder.addRegexAction(new RegexAction(regex, action));
+      List<String> modes = parseModes(line, matcher.group(1));
+      String regexStr = matcher.group(3);
+      boolean caseInsensitive = !matcher.group(4).isEmpty() || specBuilder.caseInsensitive();
+      Regex regex = Regex.fromString(regexStr, caseInsensitive);
+      Action action = parseAction(line, matcher.group(2), matcher.group(5), matcher.group(6));
+      specBuilder.addRegexAction(new RegexAction(regex, action, modes));
+    }
+
+    /**
+     * Parses the comma separated modes of a rule, <code>*</code> standing for every mode.
+     *
+     * @param line the line being parsed
+     * @param modes the modes, or null if the rule has none
+     * @return the modes of the rule
+     * @throws GeneratorException if a mode is invalid
+     */
+    private List<String> parseModes(String line, String modes) {
+      if (modes == null) {
+        return List.of(LexSpec.INITIAL_MODE);
+      }
+      List<String> result = new ArrayList<>();
+      for (String mode : modes.split(",")) {
+        mode = mode.strip();
+        if (!LexSpec.ALL_MODES.equals(mode) && !MODE_PATTERN.matcher(mode).matches()) {
+          Out.error(
+              "Invalid mode '%s': '%s' in the lexer spec file at line %d!", mode, line, lineCount);
+          throw GeneratorException.error(ErrorType.ERR_LEX_REGEX_ERR);
+        }
+        result.add(mode);
+      }
+      return result;
+    }
+
+    /**
+     * Parses the action and the comma separated commands of a rule.
+     *
+     * <p>The supported commands are:
+     *
+     * <ul>
+     *   <li><code>skip</code> consumes the lexemes without returning them
+     *   <li><code>channel(hidden)</code> records the offsets of the lexemes aside of the returned
+     *       tokens
+     *   <li><code>pushMode(X)</code> saves the current mode and enters the mode X
+     *   <li><code>popMode</code> restores the saved mode
+     *   <li><code>mode(X)</code> enters the mode X
+     * </ul>
+     *
+     * @param line the line being parsed
+     * @param name the name of the token type, or null if the rule has none
+     * @param actionStr the action code within the braces, or null if the rule has none
+     * @param commands the commands, or null if the rule has none
+     * @return the action of the rule
+     * @throws GeneratorException if a command is invalid
+     */
+    private Action parseAction(String line, String name, String actionStr, String commands) {
+      Action.Channel channel = Action.Channel.DEFAULT;
+      List<Action.ModeCommand> modeCommands = new ArrayList<>();
+      for (String commandStr : commands == null ? new String[0] : commands.split(",")) {
+        Matcher matcher = COMMAND_PATTERN.matcher(commandStr.replaceAll("\\s", ""));
+        String command = matcher.matches() ? matcher.group(1) : "";
+        String arg = matcher.matches() ? matcher.group(2) : null;
+        boolean valid =
+            switch (command) {
+              case "skip", "popMode" -> arg == null;
+              case "channel" -> "hidden".equals(arg);
+              case "pushMode", "mode" -> arg != null && MODE_PATTERN.matcher(arg).matches();
+              default -> false;
+            };
+        boolean channelCommand = "skip".equals(command) || "channel".equals(command);
+        if (!valid || (channelCommand && channel != Action.Channel.DEFAULT)) {
+          Out.error(
+              "Invalid command '%s': '%s' in the lexer spec file at line %d!",
+              commandStr.strip(), line, lineCount);
+          throw GeneratorException.error(ErrorType.ERR_LEX_RULE_COMMAND_INVALID);
+        }
+        switch (command) {
+          case "skip" -> channel = Action.Channel.SKIP;
+          case "channel" -> channel = Action.Channel.HIDDEN;
+          case "pushMode" ->
+              modeCommands.add(new Action.ModeCommand(Action.ModeCommand.Kind.PUSH, arg));
+          case "popMode" ->
+              modeCommands.add(new Action.ModeCommand(Action.ModeCommand.Kind.POP, null));
+          default -> modeCommands.add(new Action.ModeCommand(Action.ModeCommand.Kind.SET, arg));
+        }
+      }
+      if (actionStr != null && channel != Action.Channel.DEFAULT) {
+        Out.error(
+            "The action of a %s rule never runs: '%s' in the lexer spec file at line %d!",
+            channel.name().toLowerCase(), line, lineCount);
+        throw GeneratorException.error(ErrorType.ERR_LEX_RULE_COMMAND_INVALID);
+      }
+      String code = actionStr == null ? "" : "{" + actionStr + "}";
+      return new Action(code, channel, modeCommands, name);
     }
   }
 }
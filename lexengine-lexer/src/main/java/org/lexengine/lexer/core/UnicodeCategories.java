@@ -0,0 +1,187 @@
+/*
+* Copyright (c) 2025 lex-engine
+* Author: Pradeesh Kumar
+*/
+package org.lexengine.lexer.core;
+
+import static java.util.Map.entry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves unicode general categories, as used by the <code>&#92;p{..}</code> and <code>
+ * &#92;P{..}</code> regex classes, into sorted lists of merged code point ranges.
+ *
+ * <p>The ranges are computed from {@link Character#getType(int)} with a single scan of the code
+ * point space on first use. Every resolved category is cached, so referring to the same category
+ * in many rules costs nothing more than a map lookup.
+ */
+final class UnicodeCategories {
+
+  /** Maps the category names to the {@link Character#getType(int)} values they consist of. */
+  private static final Map<String, byte[]> CATEGORIES =
+      Map.ofEntries(
+          entry(
+              "L",
+              types(
+                  Character.UPPERCASE_LETTER,
+                  Character.LOWERCASE_LETTER,
+                  Character.TITLECASE_LETTER,
+                  Character.MODIFIER_LETTER,
+                  Character.OTHER_LETTER)),
+          entry(
+              "LC",
+              types(
+                  Character.UPPERCASE_LETTER,
+                  Character.LOWERCASE_LETTER,
+                  Character.TITLECASE_LETTER)),
+          entry("Lu", types(Character.UPPERCASE_LETTER)),
+          entry("Ll", types(Character.LOWERCASE_LETTER)),
+          entry("Lt", types(Character.TITLECASE_LETTER)),
+          entry("Lm", types(Character.MODIFIER_LETTER)),
+          entry("Lo", types(Character.OTHER_LETTER)),
+          entry(
+              "M",
+              types(
+                  Character.NON_SPACING_MARK,
+                  Character.ENCLOSING_MARK,
+                  Character.COMBINING_SPACING_MARK)),
+          entry("Mn", types(Character.NON_SPACING_MARK)),
+          entry("Me", types(Character.ENCLOSING_MARK)),
+          entry("Mc", types(Character.COMBINING_SPACING_MARK)),
+          entry(
+              "N",
+              types(
+                  Character.DECIMAL_DIGIT_NUMBER,
+                  Character.LETTER_NUMBER,
+                  Character.OTHER_NUMBER)),
+          entry("Nd", types(Character.DECIMAL_DIGIT_NUMBER)),
+          entry("Nl", types(Character.LETTER_NUMBER)),
+          entry("No", types(Character.OTHER_NUMBER)),
+          entry(
+              "P",
+              types(
+                  Character.CONNECTOR_PUNCTUATION,
+                  Character.DASH_PUNCTUATION,
+                  Character.START_PUNCTUATION,
+                  Character.END_PUNCTUATION,
+                  Character.INITIAL_QUOTE_PUNCTUATION,
+                  Character.FINAL_QUOTE_PUNCTUATION,
+                  Character.OTHER_PUNCTUATION)),
+          entry("Pc", types(Character.CONNECTOR_PUNCTUATION)),
+          entry("Pd", types(Character.DASH_PUNCTUATION)),
+          entry("Ps", types(Character.START_PUNCTUATION)),
+          entry("Pe", types(Character.END_PUNCTUATION)),
+          entry("Pi", types(Character.INITIAL_QUOTE_PUNCTUATION)),
+          entry("Pf", types(Character.FINAL_QUOTE_PUNCTUATION)),
+          entry("Po", types(Character.OTHER_PUNCTUATION)),
+          entry(
+              "S",
+              types(
+                  Character.MATH_SYMBOL,
+                  Character.CURRENCY_SYMBOL,
+                  Character.MODIFIER_SYMBOL,
+                  Character.OTHER_SYMBOL)),
+          entry("Sm", types(Character.MATH_SYMBOL)),
+          entry("Sc", types(Character.CURRENCY_SYMBOL)),
+          entry("Sk", types(Character.MODIFIER_SYMBOL)),
+          entry("So", types(Character.OTHER_SYMBOL)),
+          entry(
+              "Z",
+              types(
+                  Character.SPACE_SEPARATOR,
+                  Character.LINE_SEPARATOR,
+                  Character.PARAGRAPH_SEPARATOR)),
+          entry("Zs", types(Character.SPACE_SEPARATOR)),
+          entry("Zl", types(Character.LINE_SEPARATOR)),
+          entry("Zp", types(Character.PARAGRAPH_SEPARATOR)),
+          entry(
+              "C",
+              types(
+                  Character.CONTROL,
+                  Character.FORMAT,
+                  Character.PRIVATE_USE,
+                  Character.SURROGATE,
+                  Character.UNASSIGNED)),
+          entry("Cc", types(Character.CONTROL)),
+          entry("Cf", types(Character.FORMAT)),
+          entry("Co", types(Character.PRIVATE_USE)),
+          entry("Cs", types(Character.SURROGATE)),
+          entry("Cn", types(Character.UNASSIGNED)));
+
+  /** Resolved categories, keyed by name. */
+  private static final Map<String, List<Range>> CACHE = new ConcurrentHashMap<>();
+
+  private UnicodeCategories() {}
+
+  /**
+   * Returns the code point ranges of the given general category.
+   *
+   * <p>Both the one letter categories (e.g. L, N) and the two letter categories (e.g. Lu, Nd) are
+   * supported. The returned ranges are sorted, disjoint and adjacent ranges are merged.
+   *
+   * @param name the name of the category
+   * @return an immutable list of ranges, or null if the category is unknown
+   */
+  static List<Range> ranges(String name) {
+    byte[] types = CATEGORIES.get(name);
+    if (types == null) {
+      return null;
+    }
+    return CACHE.computeIfAbsent(name, n -> merge(types));
+  }
+
+  /**
+   * Merges the ranges of the given character types into a sorted list of disjoint ranges.
+   *
+   * @param types the character types to merge
+   * @return an immutable list of merged ranges
+   */
+  private static List<Range> merge(byte[] types) {
+    List<Range> ranges = new ArrayList<>();
+    for (byte type : types) {
+      ranges.addAll(TypeRanges.BY_TYPE.get(type));
+    }
+    return Collections.unmodifiableList(DisjointIntSet.union(ranges));
+  }
+
+  private static byte[] types(byte... types) {
+    return types;
+  }
+
+  /** Holder of the ranges of every character type, computed on first access. */
+  private static final class TypeRanges {
+
+    /** The ranges of each character type, indexed by the {@link Character#getType(int)} value. */
+    private static final List<List<Range>> BY_TYPE = scan();
+
+    /**
+     * Scans the whole code point space once, splitting it into runs of the same character type.
+     *
+     * @return the runs of each character type
+     */
+    private static List<List<Range>> scan() {
+      int typesCount = Character.FINAL_QUOTE_PUNCTUATION + 1;
+      List<List<Range>> byType = new ArrayList<>(typesCount);
+      for (int i = 0; i < typesCount; i++) {
+        byType.add(new ArrayList<>());
+      }
+      int runStart = 0;
+      int runType = Character.getType(0);
+      for (int codePoint = 1; codePoint <= Character.MAX_CODE_POINT; codePoint++) {
+        int type = Character.getType(codePoint);
+        if (type != runType) {
+          byType.get(runType).add(Range.of(runStart, codePoint - 1));
+          runStart = codePoint;
+          runType = type;
+        }
+      }
+      byType.get(runType).add(Range.of(runStart, Character.MAX_CODE_POINT));
+      return byType;
+    }
+  }
+}
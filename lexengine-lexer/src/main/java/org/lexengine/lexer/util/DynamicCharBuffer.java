@@ -6,24 +6,46 @@ package org.lexengine.lexer.util;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * A dynamic character buffer that reads characters from an underlying {@link Reader} and stores
- * them in a dynamically-sized array. This allows for efficient reading and manipulation of large
- * amounts of text data.
+ * them in a list of fixed-size chunks. The chunks are never copied nor grown: a window spanning
+ * many chunks, e.g. a long comment, is assembled only when its text is requested, and the chunks
+ * before the window are recycled to hold the next characters.
  */
 public class DynamicCharBuffer {
 
-  /** Default initial capacity of the buffer. */
+  /** Default size of the chunks. */
   private static final int DEFAULT_BUFFER_SIZE = 256;
 
+  /** Chunk of the characters past the stored ones. */
+  private static final char[] NO_CHARS = new char[0];
+
   /** Underlying reader providing the source of characters. */
-  private final Reader reader;
+  private Reader reader;
+
+  /** Chunks holding the characters, the ones past {@link #chunkCount} are free to be reused. */
+  private char[][] chunks;
+
+  /** Number of chunks holding the stored characters. */
+  private int chunkCount;
+
+  /** Number of characters of every chunk. */
+  private final int chunkSize;
 
-  /** Current buffer holding the characters. */
-  private char[] buffer;
+  /** Pool the chunks are borrowed from and returned to on release, null if not pooled. */
+  private final ChunkPool pool;
 
-  /** Number of valid characters currently stored in the buffer. */
+  /** Index of the lines of the characters read or appended, null if the lines aren't indexed. */
+  private final LineIndex lines;
+
+  /** Number of valid characters currently stored, from the start of the first chunk. */
   private int length;
 
   /** Index into the buffer where the next character will be returned from. */
@@ -35,11 +57,14 @@ public class DynamicCharBuffer {
   /** Flag indicating whether the end-of-file has been reached on the underlying reader. */
   private boolean eof;
 
-  /** Initial capacity specified when creating the buffer. */
-  private final int initialCapacity;
+  /** Chunk holding the character at the index, read without locating it while in the chunk. */
+  private char[] current;
+
+  /** Index of the first character of the current chunk, and of the first one past it. */
+  private int currentStart, currentEnd;
 
   /**
-   * Constructs a new DynamicCharBuffer instance with the default initial capacity.
+   * Constructs a new DynamicCharBuffer instance with the default chunk size.
    *
    * @param reader the underlying reader to read characters from
    */
@@ -48,26 +73,111 @@ public class DynamicCharBuffer {
   }
 
   /**
-   * Constructs a new DynamicCharBuffer instance with the specified initial capacity.
+   * Constructs a new DynamicCharBuffer instance with the specified chunk size.
    *
    * @param reader the underlying reader to read characters from
-   * @param initialCapacity the initial capacity of the buffer
-   * @throws IllegalArgumentException if the initial capacity is less than or equal to zero
+   * @param chunkSize the number of characters of every chunk
+   * @throws IllegalArgumentException if the chunk size is less than or equal to zero
+   */
+  public DynamicCharBuffer(Reader reader, int chunkSize) {
+    this(reader, chunkSize, null, null);
+  }
+
+  /**
+   * Constructs a new DynamicCharBuffer instance borrowing its chunks from the given pool, and
+   * returning them on {@link #release()}.
+   *
+   * @param reader the underlying reader to read characters from, or null to append the characters
+   * @param pool the pool of the chunks
+   */
+  public DynamicCharBuffer(Reader reader, ChunkPool pool) {
+    this(reader, pool.chunkSize(), pool, null);
+  }
+
+  /**
+   * Constructs a new DynamicCharBuffer instance borrowing its chunks from the given pool, and
+   * indexing the lines of the characters as they are read or appended, one chunk at a time.
+   *
+   * @param reader the underlying reader to read characters from, or null to append the characters
+   * @param pool the pool of the chunks
+   * @param lines the index of the lines, following the characters indexed so far
    */
-  public DynamicCharBuffer(Reader reader, int initialCapacity) {
-    if (initialCapacity <= 0) {
+  public DynamicCharBuffer(Reader reader, ChunkPool pool, LineIndex lines) {
+    this(reader, pool.chunkSize(), pool, lines);
+  }
+
+  private DynamicCharBuffer(Reader reader, int chunkSize, ChunkPool pool, LineIndex lines) {
+    if (chunkSize <= 0) {
       throw new IllegalArgumentException("Capacity must be greater than 0");
     }
-    this.initialCapacity = initialCapacity;
+    this.chunkSize = chunkSize;
+    this.pool = pool;
+    this.lines = lines;
     this.reader = reader;
-    this.buffer = null;
+    this.chunks = new char[1][];
+    this.current = NO_CHARS;
+    loadBufferIfRequired();
+  }
+
+  /**
+   * Constructs a new DynamicCharBuffer instance without reader, whose characters are appended by
+   * {@link #append(CharBuffer, int)}.
+   *
+   * @param chunkSize the number of characters of every chunk
+   * @throws IllegalArgumentException if the chunk size is less than or equal to zero
+   */
+  public DynamicCharBuffer(int chunkSize) {
+    this(null, chunkSize);
+  }
+
+  /**
+   * Starts reading characters from the given reader, discarding the characters left in the buffer.
+   * The chunks themselves are kept, so that reading many sources one after the other allocates
+   * them once.
+   *
+   * @param reader the underlying reader to read characters from
+   */
+  public void reset(Reader reader) {
+    this.reader = reader;
+    this.chunkCount = 0;
     this.index = 0;
     this.startIndex = 0;
     this.length = 0;
     this.eof = false;
+    seek(0);
     loadBufferIfRequired();
   }
 
+  /**
+   * Releases the chunks of the buffer, returning them to its pool if any, and closes the reader.
+   * No character is available past this call, until the buffer is reset.
+   *
+   * @throws DynamicBufferException if the reader can't be closed
+   */
+  public void release() {
+    if (pool != null) {
+      for (char[] chunk : chunks) {
+        if (chunk != null) {
+          pool.release(chunk);
+        }
+      }
+    }
+    this.chunks = new char[0][];
+    this.chunkCount = 0;
+    this.index = 0;
+    this.startIndex = 0;
+    this.length = 0;
+    this.eof = true;
+    seek(0);
+    if (reader != null) {
+      try {
+        reader.close();
+      } catch (IOException e) {
+        throw new DynamicBufferException("Error while closing the reader!", e);
+      }
+    }
+  }
+
   /**
    * Returns whether there are more characters available in the buffer.
    *
@@ -84,10 +194,14 @@ public class DynamicCharBuffer {
    * @return the next character, or '\0' if no more characters are available
    */
   public char next() {
-    if (!hasNext()) {
+    if (index < currentEnd) {
+      return current[index++ - currentStart];
+    }
+    if (!hasNext() || index >= length) {
       return '\0';
     }
-    return buffer[index++];
+    seek(index);
+    return current[index++ - currentStart];
   }
 
   /**
@@ -96,10 +210,44 @@ public class DynamicCharBuffer {
    * @return the next character, or '\0' if no more characters are available
    */
   public char peek() {
-    if (!hasNext()) {
+    if (index < currentEnd) {
+      return current[index - currentStart];
+    }
+    if (!hasNext() || index >= length) {
       return '\0';
     }
-    return buffer[index];
+    seek(index);
+    return current[index - currentStart];
+  }
+
+  /**
+   * Returns the number of characters stored in the buffer which are not returned yet.
+   *
+   * @return the number of characters available without reading
+   */
+  public int available() {
+    return length - index;
+  }
+
+  /**
+   * Appends characters to the buffer, filling the last chunk first and then recycled or new
+   * chunks.
+   *
+   * @param chars the characters to append
+   * @param maxLength the maximum number of characters to append
+   */
+  public void append(CharBuffer chars, int maxLength) {
+    int count = Math.min(chars.remaining(), maxLength);
+    while (count > 0) {
+      int free = reserve();
+      int appended = Math.min(count, free);
+      chars.get(chunks[chunkCount - 1], chunkSize - free, appended);
+      if (lines != null) {
+        lines.index(chunks[chunkCount - 1], chunkSize - free, chunkSize - free + appended);
+      }
+      length += appended;
+      count -= appended;
+    }
   }
 
   /**
@@ -112,64 +260,461 @@ public class DynamicCharBuffer {
   }
 
   /**
-   * Returns the current capacity of the buffer.
+   * Returns the current capacity of the buffer, the number of characters of its chunks.
    *
    * @return the current capacity
    */
   public int capacity() {
-    return buffer.length;
+    int count = 0;
+    for (char[] chunk : chunks) {
+      if (chunk != null) {
+        count++;
+      }
+    }
+    return count * chunkSize;
   }
 
   /** Rolls back the index by one position, effectively undoing the last call to {@link #next()}. */
   public void rollback() {
-    if (index >= startIndex) {
+    if (index > startIndex) {
       --index;
+      if (index < currentStart) {
+        seek(index);
+      }
+    }
+  }
+
+  /**
+   * Rolls back the index to the given length of the current window, undoing the calls to {@link
+   * #next()} made past that point.
+   *
+   * @param lexemeLength the length of the window to roll back to
+   */
+  public void rollbackTo(int lexemeLength) {
+    this.index = startIndex + lexemeLength;
+    if (index < currentStart) {
+      seek(index);
     }
   }
 
+  /**
+   * Returns the number of characters between the start index and the current index.
+   *
+   * @return the length of the current window
+   */
+  public int lexemeLength() {
+    return index - startIndex;
+  }
+
   /** Clears all characters up to the current index, resetting the start index. */
   public void clearTillCurrent() {
     this.startIndex = index;
   }
 
   /**
-   * Returns a string containing all characters between the start index and the current index.
+   * Returns the character at the given index of the current window.
+   *
+   * @param index the index within the window
+   * @return the character
+   */
+  public char charAt(int index) {
+    int position = startIndex + index;
+    if (position >= currentStart && position < currentEnd) {
+      return current[position - currentStart];
+    }
+    return chunks[position / chunkSize][position % chunkSize];
+  }
+
+  /**
+   * Returns whether the current window holds the same characters as the given string.
+   *
+   * @param s the string to compare with, may be null
+   * @return true if the window and the string are equal, false otherwise
+   */
+  public boolean contentEquals(String s) {
+    if (s == null || s.length() != index - startIndex) {
+      return false;
+    }
+    for (int i = 0; i < s.length(); i++) {
+      if (charAt(i) != s.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns a string containing all characters between the start index and the current index,
+   * assembled from the chunks they span.
    *
    * @return the extracted string
    */
   public String getStringTillCurrent() {
-    return new String(buffer, startIndex, index - startIndex);
+    int count = index - startIndex;
+    if (count == 0) {
+      return "";
+    }
+    int chunk = startIndex / chunkSize;
+    int offset = startIndex - chunk * chunkSize;
+    if (offset + count <= chunkSize) {
+      return new String(chunks[chunk], offset, count);
+    }
+    StringBuilder builder = new StringBuilder(count);
+    while (count > 0) {
+      int copied = Math.min(count, chunkSize - offset);
+      builder.append(chunks[chunk++], offset, copied);
+      count -= copied;
+      offset = 0;
+    }
+    return builder.toString();
   }
 
   /** Loads more characters into the buffer if necessary. */
   private void loadBufferIfRequired() {
-    if (eof || index < length) {
+    if (eof || index < length || reader == null) {
       return;
     }
-    int newCapacity = length == 0 || startIndex > (length >> 1) ? initialCapacity : length * 2;
-    char[] newBuffer = new char[newCapacity];
-    if (buffer == null) {
-      buffer = newBuffer;
-    } else {
-      System.arraycopy(buffer, startIndex, newBuffer, 0, length - startIndex);
-      length -= startIndex;
-      index -= startIndex;
-      startIndex = 0;
-    }
+    int free = reserve();
     try {
-      int readSize = reader.read(newBuffer, length, buffer.length - length);
+      int readSize = reader.read(chunks[chunkCount - 1], chunkSize - free, free);
       if (readSize == -1) {
         eof = true;
         reader.close();
         return;
       }
-      buffer = newBuffer;
+      if (lines != null) {
+        lines.index(chunks[chunkCount - 1], chunkSize - free, chunkSize - free + readSize);
+      }
       length = length + readSize;
     } catch (IOException e) {
       throw new DynamicBufferException("Error while reading from buffer!", e);
     }
   }
 
+  /**
+   * Makes room for a character past the stored ones. Once the last chunk is full, the chunks before
+   * the window are recycled and a free chunk is appended, allocated only if none is free.
+   *
+   * @return the number of characters free in the last chunk
+   */
+  private int reserve() {
+    int free = chunkCount * chunkSize - length;
+    if (free > 0) {
+      return free;
+    }
+    recycle();
+    if (chunkCount == chunks.length) {
+      chunks = Arrays.copyOf(chunks, Math.max(1, chunkCount * 2));
+    }
+    if (chunks[chunkCount] == null) {
+      chunks[chunkCount] = pool == null ? new char[chunkSize] : pool.acquire();
+    }
+    chunkCount++;
+    return chunkSize;
+  }
+
+  /**
+   * Moves the chunks wholly before the window past the chunks in use, where they are free to be
+   * reused, and shifts the indices accordingly.
+   */
+  private void recycle() {
+    int recycled = startIndex / chunkSize;
+    if (recycled == 0) {
+      return;
+    }
+    reverse(0, recycled);
+    reverse(recycled, chunkCount);
+    reverse(0, chunkCount);
+    int shift = recycled * chunkSize;
+    chunkCount -= recycled;
+    length -= shift;
+    index -= shift;
+    startIndex -= shift;
+    seek(index);
+  }
+
+  private void reverse(int from, int to) {
+    for (int i = from, j = to - 1; i < j; i++, j--) {
+      char[] chunk = chunks[i];
+      chunks[i] = chunks[j];
+      chunks[j] = chunk;
+    }
+  }
+
+  /**
+   * Makes the chunk holding the character at the given index the current one.
+   *
+   * @param position the index of the character
+   */
+  private void seek(int position) {
+    if (position >= length) {
+      current = NO_CHARS;
+      currentStart = position;
+      currentEnd = position;
+      return;
+    }
+    int chunk = position / chunkSize;
+    current = chunks[chunk];
+    currentStart = chunk * chunkSize;
+    currentEnd = Math.min(currentStart + chunkSize, length);
+  }
+
+  /**
+   * A pool of chunks shared by many buffers, e.g. by the buffers of many short-lived scanners. The
+   * idle chunks are kept in a fixed array of slots, taken and filled with atomic operations only,
+   * so that the pool neither locks nor allocates, whatever the thread borrowing or returning a
+   * chunk. The chunks returned while every slot is filled are left to the garbage collector.
+   */
+  public static final class ChunkPool {
+
+    /** Number of characters of every chunk. */
+    private final int chunkSize;
+
+    /** Slots of the idle chunks, null if empty. */
+    private final AtomicReferenceArray<char[]> slots;
+
+    /** Number of idle chunks, checked before looking for one. */
+    private final AtomicInteger idle;
+
+    /** Number of chunks borrowed, allocated, returned, and returned while the pool was full. */
+    private final LongAdder borrowed, allocated, returned, discarded;
+
+    /**
+     * Constructs a new pool.
+     *
+     * @param chunkSize the number of characters of every chunk
+     * @param capacity the maximum number of idle chunks kept
+     * @throws IllegalArgumentException if the chunk size or the capacity is less than or equal to
+     *     zero
+     */
+    public ChunkPool(int chunkSize, int capacity) {
+      if (chunkSize <= 0 || capacity <= 0) {
+        throw new IllegalArgumentException("Capacity must be greater than 0");
+      }
+      this.chunkSize = chunkSize;
+      this.slots = new AtomicReferenceArray<>(capacity);
+      this.idle = new AtomicInteger();
+      this.borrowed = new LongAdder();
+      this.allocated = new LongAdder();
+      this.returned = new LongAdder();
+      this.discarded = new LongAdder();
+    }
+
+    /**
+     * Returns the number of characters of every chunk.
+     *
+     * @return the chunk size
+     */
+    public int chunkSize() {
+      return chunkSize;
+    }
+
+    /**
+     * Takes an idle chunk, or allocates one if none is idle.
+     *
+     * @return the chunk, whose characters are undefined
+     */
+    public char[] acquire() {
+      borrowed.increment();
+      if (idle.get() > 0) {
+        int start = probe();
+        for (int i = 0; i < slots.length(); i++) {
+          int slot = (start + i) % slots.length();
+          char[] chunk;
+          if (slots.get(slot) != null && (chunk = slots.getAndSet(slot, null)) != null) {
+            idle.decrementAndGet();
+            return chunk;
+          }
+        }
+      }
+      allocated.increment();
+      return new char[chunkSize];
+    }
+
+    /**
+     * Returns a chunk to the pool, which keeps it if a slot is empty.
+     *
+     * @param chunk the chunk, not used by the caller anymore
+     */
+    public void release(char[] chunk) {
+      returned.increment();
+      if (chunk.length == chunkSize && idle.get() < slots.length()) {
+        int start = probe();
+        for (int i = 0; i < slots.length(); i++) {
+          int slot = (start + i) % slots.length();
+          if (slots.get(slot) == null && slots.compareAndSet(slot, null, chunk)) {
+            idle.incrementAndGet();
+            return;
+          }
+        }
+      }
+      discarded.increment();
+    }
+
+    /**
+     * Returns the number of chunks borrowed from the pool.
+     *
+     * @return the number of chunks borrowed
+     */
+    public long borrowed() {
+      return borrowed.sum();
+    }
+
+    /**
+     * Returns the number of chunks allocated since none was idle.
+     *
+     * @return the number of chunks allocated
+     */
+    public long allocated() {
+      return allocated.sum();
+    }
+
+    /**
+     * Returns the number of chunks returned to the pool.
+     *
+     * @return the number of chunks returned
+     */
+    public long returned() {
+      return returned.sum();
+    }
+
+    /**
+     * Returns the number of chunks returned while the pool was full, and not kept.
+     *
+     * @return the number of chunks discarded
+     */
+    public long discarded() {
+      return discarded.sum();
+    }
+
+    /**
+     * Returns the number of idle chunks kept by the pool.
+     *
+     * @return the number of idle chunks
+     */
+    public int idle() {
+      return idle.get();
+    }
+
+    /** Returns the slot to start looking from, spreading the threads over the slots. */
+    private int probe() {
+      return (int) ((Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L) >>> 33)
+          % slots.length();
+    }
+  }
+
+  /**
+   * An index of the offsets at which the lines of a source start, built as its characters are
+   * indexed in order, and searched by offset. The lines are separated by '\n', so that "\r\n" is
+   * a single separator.
+   */
+  public static final class LineIndex {
+
+    /** Offsets of the first character of each line, the first line starting at 0. */
+    private int[] starts;
+
+    /** Number of lines started. */
+    private int count;
+
+    /** Offset following the last character indexed. */
+    private int indexedTo;
+
+    /** Constructs a new index, with no character indexed. */
+    public LineIndex() {
+      this.starts = new int[64];
+      this.count = 1;
+    }
+
+    /**
+     * Indexes the given characters, following the characters indexed so far.
+     *
+     * @param chars the array holding the characters
+     * @param from the index of the first character in the array
+     * @param to the index following the last character in the array
+     */
+    public void index(char[] chars, int from, int to) {
+      int shift = indexedTo - from;
+      for (int i = from; i < to; i++) {
+        if (chars[i] == '\n') {
+          add(shift + i + 1);
+        }
+      }
+      indexedTo += to - from;
+    }
+
+    /**
+     * Indexes the given characters, following the characters indexed so far.
+     *
+     * @param text the text holding the characters
+     * @param from the index of the first character in the text
+     * @param to the index following the last character in the text
+     */
+    public void index(CharSequence text, int from, int to) {
+      int shift = indexedTo - from;
+      for (int i = from; i < to; i++) {
+        if (text.charAt(i) == '\n') {
+          add(shift + i + 1);
+        }
+      }
+      indexedTo += to - from;
+    }
+
+    /**
+     * Returns the offset following the last character indexed.
+     *
+     * @return the number of characters indexed, counted from offset 0
+     */
+    public int indexedTo() {
+      return indexedTo;
+    }
+
+    /**
+     * Forgets the characters past the given offset, the characters indexed next following it.
+     *
+     * @param offset the offset following the last character kept
+     */
+    public void truncate(int offset) {
+      if (offset >= indexedTo) {
+        return;
+      }
+      while (count > 1 && starts[count - 1] > offset) {
+        count--;
+      }
+      indexedTo = offset;
+    }
+
+    /**
+     * Returns the line of the character at the given offset.
+     *
+     * @param offset the offset of the character
+     * @return the line number, starting at 1
+     * @throws IndexOutOfBoundsException if the offset is negative or past the indexed characters
+     */
+    public int line(int offset) {
+      Objects.checkIndex(offset, indexedTo + 1);
+      int index = Arrays.binarySearch(starts, 0, count, offset);
+      return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    /**
+     * Returns the column of the character at the given offset.
+     *
+     * @param offset the offset of the character
+     * @return the column number, starting at 1
+     * @throws IndexOutOfBoundsException if the offset is negative or past the indexed characters
+     */
+    public int column(int offset) {
+      return offset - starts[line(offset) - 1] + 1;
+    }
+
+    private void add(int start) {
+      if (count == starts.length) {
+        starts = Arrays.copyOf(starts, count << 1);
+      }
+      starts[count++] = start;
+    }
+  }
+
   /** Custom exception thrown when an error occurs during buffer operations. */
   public static class DynamicBufferException extends RuntimeException {
 
@@ -26,7 +26,7 @@ public class LexerOptions {
   /** Flag indicating whether to enable verbose mode. */
   public static boolean verbose;
 
-  /** Character encoding used by the application. */
+  /** Character encoding of the files read by the generated lexers from their path. */
   public static Charset encoding;
 
   /** Output directory to save generated scanner java source file. */
@@ -84,6 +84,7 @@ public class LexerOptions {
         case "-sp", "--spec" -> lexerSpecFile = new File(getNextArg(args, ++i));
         case "-sc", "--scanner-class-file" ->
             scannerClassTemplate = Paths.get(getNextArg(args, ++i));
+        case "-e", "--encoding" -> encoding = getCharset(getNextArg(args, ++i));
         default -> {
           Out.error("Unknown option: %x", args[i]);
           System.exit(1);
@@ -93,6 +94,23 @@ public class LexerOptions {
     }
   }
 
+  /**
+   * Returns the charset of the given name, logging an error message and exiting the program if it
+   * isn't supported.
+   *
+   * @param name the name of the charset
+   * @return the charset, or null (though the method never returns due to System.exit)
+   */
+  private static Charset getCharset(String name) {
+    try {
+      return Charset.forName(name);
+    } catch (IllegalArgumentException e) {
+      Out.error("Unsupported encoding %s", name);
+      System.exit(1);
+      return null;
+    }
+  }
+
   /**
    * Retrieves the next command-line argument from the given array.
    *
@@ -3,6 +3,24 @@
 # The config value contains properties related to generated scanner such as name of the scanner class, method name etc.
 # Each section is separated by the delimiter '---'
 # Line starts with '#' are treated as comments.
+# The properties imports and implements list the types imported by the scanner and the interfaces
+# it implements, e.g. imports=org.example.Lexer and implements=Lexer.
+# A regex followed by the letter i, e.g. "select"i, ignores the case.
+# The property caseInsensitive=true in the metadata section makes every regex ignore the case.
+# Keywords matched by a later rule, e.g. the identifier rule, are recognized with a perfect hash
+# table instead of the DFA states. The property keywordHash=false keeps them in the DFA.
+# A rule may end with commands instead of an action: "-> skip" consumes the lexemes, e.g. the
+# whitespace, and "-> channel(hidden)" records only their offsets, e.g. the comments.
+# A rule may start with the modes it is active in, e.g. <STRING> or <*> for every mode, the rules
+# without modes are active in the INITIAL mode. The commands "-> pushMode(X)", "-> popMode" and
+# "-> mode(X)" change the mode of the scanner, each mode being scanned by its own DFA.
+# A rule may be named before its regex, e.g. NUMBER "[0-9]+" { .. }, declaring the constant
+# TOKEN_NUMBER returned by nextType(), which scans the tokens without running their actions.
+# The property features lists the optional parts rendered into the scanner among document,
+# parallel, service, publisher, pipeline, prefetching, lookahead, push and stream, e.g.
+# features=document.
+# The property lineSeparated=true makes the generator verify that every line separator ends a
+# lexeme, and renders scanLines(path, sliceCount) scanning the lines of a file in parallel.
 
 # Metadata Section
 class=MyLexer
@@ -5,9 +5,13 @@
 package org.lexengine.lexer.core;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.BitSet;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 
 public class DfaGeneratorTest {
@@ -42,6 +46,137 @@ public class DfaGeneratorTest {
     assertAction(dfa.test("/** my comment ****/"), "{ return Token.comment(); }");
   }
 
+  @Test
+  void testUnicodeMatchesAndNonMatches() {
+    Dfa dfa = new DfaGenerator(TestUtils.generateNfa("lexer-spec-unicode.spec")).generate();
+    assertAction(dfa.test("αβγ"), "{ return Token.greek(value()); }");
+    assertAction(dfa.test("ω"), "{ return Token.greek(value()); }");
+    assertAction(dfa.test("😀😀"), "{ return Token.emoji(value()); }");
+    assertAction(dfa.test("🚀"), "{ return Token.rocket(); }");
+    assertAction(dfa.test("'中😀 $'"), "{ return Token.string(value()); }");
+    assertAction(dfa.test("''"), "{ return Token.string(value()); }");
+    assertAction(dfa.test("abc"), "{ return Token.identifier(value()); }");
+    assertNull(dfa.test("αa"));
+    assertNull(dfa.test("\uD83D"));
+    assertNull(dfa.test("😁"));
+    assertNull(dfa.test("'''"));
+  }
+
+  @Test
+  void testUnicodeCategoryMatchesAndNonMatches() {
+    Dfa dfa =
+        new DfaGenerator(TestUtils.generateNfa("lexer-spec-unicode-category.spec")).generate();
+    assertAction(dfa.test("Straße"), "{ return Token.capitalized(value()); }");
+    assertAction(dfa.test("Ωμέγα"), "{ return Token.capitalized(value()); }");
+    assertAction(dfa.test("straße"), "{ return Token.identifier(value()); }");
+    assertAction(dfa.test("_変数١٢"), "{ return Token.identifier(value()); }");
+    assertAction(dfa.test("𝒳"), "{ return Token.identifier(value()); }");
+    assertAction(dfa.test("42"), "{ return Token.integer(value()); }");
+    assertAction(dfa.test("٤٢"), "{ return Token.integer(value()); }");
+    assertAction(dfa.test("€"), "{ return Token.currency(value()); }");
+    assertAction(dfa.test("€$"), "{ return Token.nonLetters(value()); }");
+    assertAction(dfa.test("\u3000\t\n"), "{ /* do nothing */ }");
+    assertNull(dfa.test("1a"));
+    assertNull(dfa.test("€€€"));
+  }
+
+  @Test
+  void testCaseInsensitiveMatchesAndNonMatches() {
+    Dfa dfa =
+        new DfaGenerator(TestUtils.generateNfa("lexer-spec-case-insensitive.spec")).generate();
+    assertAction(dfa.test("select"), "{ return Token.of(Token.Type.SELECT); }");
+    assertAction(dfa.test("SELECT"), "{ return Token.of(Token.Type.SELECT); }");
+    assertAction(dfa.test("sElEcT"), "{ return Token.of(Token.Type.SELECT); }");
+    assertAction(dfa.test("From"), "{ return Token.of(Token.Type.FROM); }");
+    assertAction(dfa.test("Where"), "{ return Token.of(Token.Type.WHERE); }");
+    assertAction(dfa.test("WHERE"), "{ return Token.identifier(value()); }");
+    assertAction(dfa.test("My_Table1"), "{ return Token.identifier(value()); }");
+    assertAction(dfa.test("'Abc'"), "{ return Token.string(value()); }");
+    assertNull(dfa.test("1abc"));
+  }
+
+  @Test
+  void testChannels() {
+    Dfa dfa = new DfaGenerator(TestUtils.generateNfa("lexer-spec-channels.spec")).generate();
+    assertEquals(Action.Channel.DEFAULT, dfa.test("abc").channel());
+    assertEquals(Action.Channel.SKIP, dfa.test(" \t\n").channel());
+    assertEquals(Action.Channel.HIDDEN, dfa.test("// note").channel());
+    assertEquals(Action.Channel.HIDDEN, dfa.test("/* a * b */").channel());
+    assertNull(dfa.test("/* a */ b */"));
+  }
+
+  @Test
+  void testModes() {
+    LexSpec spec = TestUtils.generateLexSpec("lexer-spec-modes.spec");
+    Dfa initial = TestUtils.generateDfa(spec, LexSpec.INITIAL_MODE);
+    Dfa string = TestUtils.generateDfa(spec, "STRING");
+    Dfa comment = TestUtils.generateDfa(spec, "COMMENT");
+    assertEquals(initial.alphabetSize(), comment.alphabetSize());
+    assertEquals(initial.alphabetIndex(), string.alphabetIndex());
+
+    assertAction(initial.test("abc"), "{ return \"id:\" + value(); }");
+    assertNull(initial.test("*/"));
+    assertAction(string.test("abc def"), "{ return \"text:\" + value(); }");
+    assertAction(string.test("\""), "{ return \"end\"; }");
+    assertEquals(
+        List.of(new Action.ModeCommand(Action.ModeCommand.Kind.POP, null)),
+        string.test("\"").modeCommands());
+    assertEquals(Action.Channel.SKIP, comment.test("*/").channel());
+    assertEquals(Action.Channel.SKIP, comment.test("abc").channel());
+    assertNull(comment.test("*/x"));
+    // The rule of all the modes
+    assertAction(initial.test("\0"), "{ return \"nul\"; }");
+    assertAction(comment.test("\0"), "{ return \"nul\"; }");
+  }
+
+  @Test
+  void testCaseInsensitiveSharesAlphabetClasses() {
+    Dfa folded = TestUtils.generateDfa(TestUtils.lexSpecOf("select", "[a-z]+"));
+    Dfa caseInsensitive = TestUtils.generateDfa(caseInsensitiveLexSpec("select", "[a-z]+"));
+    assertEquals(folded.alphabetSize(), caseInsensitive.alphabetSize());
+    assertEquals(folded.statesCount(), caseInsensitive.statesCount());
+    assertEquals(
+        caseInsensitive.alphabetIndex().get(Range.of('S')),
+        caseInsensitive.alphabetIndex().get(Range.of('s')));
+  }
+
+  @Test
+  void testEndsLexemes() {
+    assertTrue(lineSeparated("[a-z]+", "[0-9]+,", "\\n", "[\\ \\t]+"));
+    assertTrue(lineSeparated("[a-z]+", "#[^\\n]*\\n"));
+    assertTrue(lineSeparated("[a-z]+"));
+    assertFalse(lineSeparated("[a-z]+", "[\\ \\t\\n]+"));
+    assertFalse(lineSeparated("[a-z]+", "'[^']*'", "\\n"));
+  }
+
+  @Test
+  void testLexemeEndingAlphabets() {
+    LexSpec spec = TestUtils.lexSpecOf("[a-z]+", ";", "'[a-z]*'");
+    Dfa dfa = TestUtils.minimizeDfa(TestUtils.generateDfa(spec));
+    BitSet alphabets = dfa.lexemeEndingAlphabets();
+    assertEquals(1, alphabets.cardinality());
+    assertTrue(alphabets.get(alphabetOf(dfa, ';')));
+    assertFalse(alphabets.get(alphabetOf(dfa, 'a')));
+    assertFalse(alphabets.get(alphabetOf(dfa, '\'')));
+  }
+
+  private int alphabetOf(Dfa dfa, int codePoint) {
+    return dfa.alphabetIndex().get(dfa.languageAlphabets().getRange(codePoint));
+  }
+
+  private boolean lineSeparated(String... regexes) {
+    return TestUtils.minimizeDfa(TestUtils.generateDfa(TestUtils.lexSpecOf(regexes)))
+        .endsLexemes('\n');
+  }
+
+  private LexSpec caseInsensitiveLexSpec(String... regexes) {
+    LexSpec.Builder builder = LexSpec.builder().caseInsensitive(true);
+    for (String regex : regexes) {
+      builder.addRegexAction(new RegexAction(Regex.fromString(regex, true), new Action("{}")));
+    }
+    return builder.build();
+  }
+
   private void assertAction(Action action, String expected) {
     assertNotNull(action);
     assertEquals(expected, action.toString());
@@ -60,6 +60,33 @@ public class DfaMinimizerTest {
     assertAction(minDfa.test("/** my comment ****/"), "{ return Token.comment(); }");
   }
 
+  @Test
+  void testRepetitionMatchesAndNonMatches() {
+    Dfa minDfa =
+        new DfaMinimizer(
+                new DfaGenerator(TestUtils.generateNfa("lexer-spec-repetition.spec")).generate())
+            .minimize();
+    assertAction(minDfa.test("192.168.0.1"), "{ return Token.ipAddress(value()); }");
+    assertAction(minDfa.test("abcdab"), "{ return Token.pairs(value()); }");
+    assertAction(minDfa.test("xxx"), "{ return Token.xs(value()); }");
+    assertAction(minDfa.test("bac"), "{ return Token.abc(value()); }");
+    assertAction(minDfa.test("0123"), "{ return Token.integer(value()); }");
+    assertNull(minDfa.test("192.168.0"));
+    assertNull(minDfa.test("xxxxx"));
+  }
+
+  @Test
+  void testRepetitionStatesCount() {
+    assertEquals(33, minimize("[a-f0-9]{32}").statesCount());
+    assertEquals(65, minimize("[0-9]{1,64}").statesCount());
+    assertEquals(16, minimize("[0-9]{1,3}(\\.[0-9]{1,3}){3}").statesCount());
+  }
+
+  private Dfa minimize(String regex) {
+    LexSpec lexSpec = TestUtils.lexSpecOf(regex);
+    return new DfaMinimizer(TestUtils.generateDfa(lexSpec)).minimize();
+  }
+
   private void assertAction(Action action, String expected) {
     assertNotNull(action);
     assertEquals(expected, action.toString());
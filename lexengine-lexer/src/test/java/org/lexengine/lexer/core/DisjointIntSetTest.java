@@ -226,4 +226,23 @@ public class DisjointIntSetTest {
     // Assert
     assertNull(result);
   }
+
+  @Test
+  public void testComplement() {
+    List<Range> complement =
+        DisjointIntSet.complement(List.of(Range.of(10, 20), Range.of(0, 4), Range.of(15, 30)));
+    assertEquals(List.of(Range.of(5, 9), Range.of(31, Character.MAX_CODE_POINT)), complement);
+    assertEquals(
+        List.of(Range.of(0, Character.MAX_CODE_POINT)), DisjointIntSet.complement(List.of()));
+    assertTrue(
+        DisjointIntSet.complement(List.of(Range.of(0, Character.MAX_CODE_POINT))).isEmpty());
+  }
+
+  @Test
+  void testUnion() {
+    List<Range> union =
+        DisjointIntSet.union(
+            List.of(Range.of(20, 30), Range.of(1, 4), Range.of(5, 9), Range.of(25, 40)));
+    assertEquals(List.of(Range.of(1, 9), Range.of(20, 40)), union);
+  }
 }
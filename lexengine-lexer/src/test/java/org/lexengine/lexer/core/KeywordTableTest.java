@@ -0,0 +1,115 @@
+/*
+* Copyright (c) 2025 lex-engine
+* Author: Pradeesh Kumar
+*/
+package org.lexengine.lexer.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+public class KeywordTableTest {
+
+  @Test
+  void testExtractKeywords() {
+    LexSpec spec = TestUtils.lexSpecOf("while", "if", "[a-z]+", "[0-9]+");
+    KeywordTable table = KeywordTable.extract(spec.regexActionList());
+    assertEquals(2, table.size());
+    assertEquals(
+        List.of(spec.regexActionList().get(2), spec.regexActionList().get(3)),
+        table.regexActions());
+    assertKeyword(table, "while", "{0}", "{2}");
+    assertKeyword(table, "if", "{1}", "{2}");
+    assertEquals(-1, table.lookup("whilst"));
+    assertEquals(-1, table.lookup("i"));
+    assertEquals(-1, table.lookup(""));
+  }
+
+  @Test
+  void testKeepLiteralsWithoutLaterHost() {
+    // '+' isn't matched by any other rule, 'do' is shadowed by the earlier identifier rule
+    LexSpec spec = TestUtils.lexSpecOf("+", "[a-z]+", "do");
+    KeywordTable table = KeywordTable.extract(spec.regexActionList());
+    assertEquals(0, table.size());
+    assertEquals(spec.regexActionList(), table.regexActions());
+    assertEquals(-1, table.lookup("do"));
+  }
+
+  @Test
+  void testKeepLiteralsOfOtherChannels() {
+    List<RegexAction> regexActions =
+        List.of(
+            new RegexAction(Regex.fromString("if"), new Action("{0}")),
+            new RegexAction(Regex.fromString("rem"), new Action("", Action.Channel.SKIP)),
+            new RegexAction(Regex.fromString("[a-z]+"), new Action("", Action.Channel.HIDDEN)));
+    KeywordTable table = KeywordTable.extract(regexActions);
+    assertEquals(0, table.size());
+    assertEquals(regexActions, table.regexActions());
+  }
+
+  @Test
+  void testDropDuplicateKeywords() {
+    LexSpec spec = TestUtils.lexSpecOf("if", "if", "[a-z]+");
+    KeywordTable table = KeywordTable.extract(spec.regexActionList());
+    assertEquals(1, table.size());
+    assertEquals(List.of(spec.regexActionList().get(2)), table.regexActions());
+    assertKeyword(table, "if", "{0}", "{2}");
+  }
+
+  @Test
+  void testExtractKeywordsReducesStates() {
+    LexSpec spec = TestUtils.generateLexSpec("lexer-spec-class-gen.spec");
+    KeywordTable table = KeywordTable.extract(spec.regexActionList());
+    assertEquals(12, table.size());
+    Dfa dfa = TestUtils.minimizeDfa(TestUtils.generateDfa(spec));
+    Dfa hashedDfa = TestUtils.minimizeDfa(TestUtils.generateDfa(withRules(table.regexActions())));
+    assertTrue(hashedDfa.statesCount() < dfa.statesCount() / 2);
+  }
+
+  @Test
+  void testPerfectHash() {
+    Random random = new Random(42);
+    Set<String> words = new HashSet<>();
+    while (words.size() < 1000) {
+      StringBuilder sb = new StringBuilder();
+      int length = 1 + random.nextInt(10);
+      for (int i = 0; i < length; i++) {
+        sb.append((char) ('a' + random.nextInt(26)));
+      }
+      words.add(sb.toString());
+    }
+    String[] regexes = words.toArray(new String[words.size() + 1]);
+    regexes[words.size()] = "[a-z]+";
+    KeywordTable table = KeywordTable.extract(TestUtils.lexSpecOf(regexes).regexActionList());
+    assertEquals(words.size(), table.size());
+    Set<Integer> slots = new HashSet<>();
+    for (String word : words) {
+      int slot = table.lookup(word);
+      assertNotEquals(-1, slot);
+      assertEquals(word, table.slots()[slot].text());
+      assertTrue(slots.add(slot));
+    }
+    assertTrue(table.slots().length <= 4 * words.size());
+  }
+
+  private LexSpec withRules(List<RegexAction> regexActions) {
+    LexSpec.Builder builder = LexSpec.builder();
+    regexActions.forEach(builder::addRegexAction);
+    return builder.build();
+  }
+
+  private void assertKeyword(KeywordTable table, String text, String action, String host) {
+    int slot = table.lookup(text);
+    assertNotEquals(-1, slot);
+    KeywordTable.Keyword keyword = table.slots()[slot];
+    assertEquals(text, keyword.text());
+    assertEquals(action, keyword.action().toString());
+    assertEquals(host, keyword.host().toString());
+  }
+}
@@ -4,20 +4,179 @@
 */
 package org.lexengine.lexer.core;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import javax.tools.ToolProvider;
 import org.junit.jupiter.api.Test;
+import org.lexengine.lexer.gentest.Token;
+import org.lexengine.lexer.util.LexerOptions;
 
+/** Renders the scanner template for the test specs, and compiles the generated lexers. */
 public class LexClassGeneratorTest {
 
   @Test
-  public void generateLexerClass() {
+  public void generateLexerClass() throws IOException {
     LexSpec spec = TestUtils.generateLexSpec("lexer-spec-class-gen.spec");
     Dfa dfa = TestUtils.minimizeDfa(TestUtils.generateDfa(spec));
-    Path templatePath =
-        Path.of(TestUtils.class.getClassLoader().getResource("scanner-class.template").getFile());
-    Path outputPath = templatePath.getParent();
+    Path outputPath = Files.createTempDirectory("lexer");
     TableBasedLexClassGenerator lcg =
-        new TableBasedLexClassGenerator(dfa, spec, outputPath, templatePath);
+        new TableBasedLexClassGenerator(dfa, spec, outputPath, templatePath());
     lcg.generate();
+    assertCompiles(outputPath);
+  }
+
+  @Test
+  public void generateModeLexerClass() throws IOException {
+    LexSpec spec = TestUtils.generateLexSpec("lexer-spec-modes.spec");
+    Map<String, Dfa> modeDfas = new LinkedHashMap<>();
+    for (String mode : spec.modes()) {
+      modeDfas.put(mode, TestUtils.minimizeDfa(TestUtils.generateDfa(spec, mode)));
+    }
+    Path outputPath = Files.createTempDirectory("lexer");
+    TableBasedLexClassGenerator lcg =
+        new TableBasedLexClassGenerator(
+            modeDfas,
+            spec,
+            KeywordTable.empty(spec.regexActionList()),
+            outputPath,
+            templatePath());
+    lcg.generate();
+    assertCompiles(outputPath);
+  }
+
+  @Test
+  public void generateTokenTypeLexerClass() throws IOException {
+    LexSpec spec = TestUtils.generateLexSpec("lexer-spec-token-types.spec");
+    KeywordTable keywordTable = KeywordTable.extract(spec.regexActionList());
+    LexSpec.Builder hashedSpec = LexSpec.builder();
+    keywordTable.regexActions().forEach(hashedSpec::addRegexAction);
+    Dfa dfa = TestUtils.minimizeDfa(TestUtils.generateDfa(hashedSpec.build()));
+    Path outputPath = Files.createTempDirectory("lexer");
+    TableBasedLexClassGenerator lcg =
+        new TableBasedLexClassGenerator(
+            Map.of(LexSpec.INITIAL_MODE, dfa), spec, keywordTable, outputPath, templatePath());
+    lcg.generate();
+    assertCompiles(outputPath);
+  }
+
+  @Test
+  public void generateChannelLexerClass() throws IOException {
+    assertCompiles(generate("lexer-spec-channels.spec", ""));
+  }
+
+  @Test
+  public void generateCaseInsensitiveLexerClass() throws IOException {
+    assertCompiles(generate("lexer-spec-case-insensitive.spec", ""));
+  }
+
+  @Test
+  public void generateLineSeparatedLexerClass() throws IOException {
+    Path outputPath = generate("lexer-spec-line-separated.spec", "");
+    String source = Files.readString(outputPath.resolve("LineLexer.java"));
+    assertTrue(source.contains("public static Tokens scanLines("));
+    assertTrue(source.contains("public static final class LexingService"));
+    assertCompiles(outputPath);
+  }
+
+  @Test
+  public void generateLexerClassWithFeatures() throws IOException {
+    Path outputPath = generate("lexer-spec-class-gen.spec", "");
+    String source = Files.readString(outputPath.resolve("MyLexer.java"));
+    assertTrue(source.contains("public static final class Document"));
+    assertTrue(source.contains("public static final class TokenLookahead"));
+    assertFalse(source.contains("scanLines("));
+    assertCompiles(outputPath);
+  }
+
+  @Test
+  public void generateLexerClassWithoutFeatures() throws IOException {
+    Path outputPath = generate("lexer-spec-case-insensitive.spec", "");
+    String source = Files.readString(outputPath.resolve("CaseInsensitiveLexer.java"));
+    assertFalse(source.contains("${"));
+    for (String part :
+        List.of(
+            "class Document",
+            "scanParallel(",
+            "scanLines(",
+            "class Tokens",
+            "class LexingService",
+            "publisher(",
+            "class TokenPipeline",
+            "prefetching(",
+            "class TokenLookahead",
+            "feed(",
+            "endOfInput(",
+            "class Push",
+            "tokens(",
+            "class TokenSpliterator")) {
+      assertFalse(source.contains(part), part);
+    }
+    // The error recovery costs the scan loops a branch on their error path only
+    assertTrue(source.contains("recoverErrors(Resync resync)"));
+    // The constructors reading a file, which predate the features, decode it with a ChannelReader
+    assertTrue(source.contains("class ChannelReader"));
+    assertCompiles(outputPath);
+  }
+
+  private static Path templatePath() {
+    return Path.of(
+        TestUtils.class.getClassLoader().getResource("scanner-class.template").getFile());
+  }
+
+  /**
+   * Generates the lexer of a test spec as the command line does, into a new temporary directory.
+   *
+   * @param specFile the name of the spec resource
+   * @param properties the properties prepended to the metadata of the spec
+   * @return the directory of the generated lexer
+   */
+  private static Path generate(String specFile, String properties) throws IOException {
+    Path outputPath = Files.createTempDirectory("lexer");
+    Path specPath = outputPath.resolve(specFile);
+    File testSpecFile = new File(TestUtils.class.getClassLoader().getResource(specFile).getFile());
+    Files.writeString(specPath, properties + Files.readString(testSpecFile.toPath()));
+    LexerOptions.outDir = outputPath.toString();
+    LexerOptions.scannerClassTemplate = templatePath();
+    new LexerGenerator(specPath.toFile()).generate();
+    return outputPath;
+  }
+
+  /**
+   * Compiles the lexers generated in the given directory, with the test tokens on the class path.
+   *
+   * @param outputPath the directory of the generated lexers
+   */
+  private static void assertCompiles(Path outputPath) throws IOException {
+    List<String> args = new ArrayList<>();
+    args.addAll(List.of("-d", outputPath.toString(), "-cp", testClassPath(), "-proc:none"));
+    try (Stream<Path> files = Files.list(outputPath)) {
+      files.map(Path::toString).filter(file -> file.endsWith(".java")).forEach(args::add);
+    }
+    ByteArrayOutputStream errors = new ByteArrayOutputStream();
+    int status =
+        ToolProvider.getSystemJavaCompiler().run(null, null, errors, args.toArray(String[]::new));
+    assertEquals(0, status, errors.toString());
+  }
+
+  private static String testClassPath() {
+    try {
+      return Path.of(Token.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+          .toString();
+    } catch (URISyntaxException e) {
+      throw new IllegalStateException(e);
+    }
   }
 }
@@ -6,6 +6,9 @@ package org.lexengine.lexer.core;
 
 import java.io.IOException;
 import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -381,6 +384,13 @@ public class LexUtilsTest {
     Assertions.assertArrayEquals(transitionTbl, deserialized);
   }
 
+  @Test
+  void testArraySerialization() {
+    int[] array = {0, -1, 42, Integer.MAX_VALUE, Integer.MIN_VALUE};
+    byte[] serialized = LexUtils.serializeArray(array);
+    Assertions.assertArrayEquals(array, LexUtils.deserializeArray(serialized, array.length));
+  }
+
   @Test
   void testCompression() throws IOException {
     int rows = transitionTbl.length;
@@ -413,4 +423,25 @@ public class LexUtilsTest {
 
     System.out.println(compressed);
   }
+
+  @Test
+  void testCreateAlphabetsIndex() {
+    List<RegexAction> regexActions =
+        Stream.of("[a-z]+", "[0-9]", "x")
+            .map(regex -> new RegexAction(Regex.fromString(regex), new Action("{}")))
+            .toList();
+    DisjointIntSet languageAlphabets = new DisjointIntSet();
+    LexUtils.extractAlphabetsFromRegex(regexActions, languageAlphabets);
+    Map<Range, Integer> alphabetIndex =
+        LexUtils.createAlphabetsIndex(regexActions, languageAlphabets);
+
+    Assertions.assertEquals(4, alphabetIndex.size());
+    Assertions.assertEquals(3, LexUtils.alphabetsCount(alphabetIndex));
+    Assertions.assertEquals(
+        alphabetIndex.get(Range.of('a', 'w')), alphabetIndex.get(Range.of('y', 'z')));
+    Assertions.assertNotEquals(
+        alphabetIndex.get(Range.of('a', 'w')), alphabetIndex.get(Range.of('x')));
+    Assertions.assertNotEquals(
+        alphabetIndex.get(Range.of('a', 'w')), alphabetIndex.get(Range.of('0', '9')));
+  }
 }
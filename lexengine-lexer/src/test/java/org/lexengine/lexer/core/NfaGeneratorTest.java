@@ -7,8 +7,10 @@ package org.lexengine.lexer.core;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import org.junit.jupiter.api.Test;
+import org.lexengine.commons.error.GeneratorException;
 import org.lexengine.lexer.util.LexerOptions;
 
 public class NfaGeneratorTest {
@@ -46,6 +48,35 @@ public class NfaGeneratorTest {
     assertAction(nfa.test("/** my comment ****/"), "{ return Token.comment(); }");
   }
 
+  @Test
+  void testRepetitionMatchesAndNonMatches() {
+    Nfa nfa = TestUtils.generateNfa("lexer-spec-repetition.spec");
+
+    assertAction(nfa.test("0123456789abcdef0123456789abcdef"), "{ return Token.hash(value()); }");
+    assertAction(nfa.test("192.168.0.1"), "{ return Token.ipAddress(value()); }");
+    assertAction(nfa.test("abcd"), "{ return Token.pairs(value()); }");
+    assertAction(nfa.test("cdcdabab"), "{ return Token.pairs(value()); }");
+    assertAction(nfa.test("xx"), "{ return Token.xs(value()); }");
+    assertAction(nfa.test("xxxx"), "{ return Token.xs(value()); }");
+    assertAction(nfa.test("ababbc"), "{ return Token.abc(value()); }");
+    assertAction(nfa.test("c"), "{ return Token.abc(value()); }");
+    assertAction(nfa.test("1234"), "{ return Token.integer(value()); }");
+    assertNull(nfa.test("0123456789abcdef0123456789abcde"));
+    assertNull(nfa.test("192.168.0.1.1"));
+    assertNull(nfa.test("1921.168.0.1"));
+    assertNull(nfa.test("ab"));
+    assertNull(nfa.test("abd"));
+    assertNull(nfa.test("x"));
+    assertNull(nfa.test("xxxxx"));
+  }
+
+  @Test
+  void testRepetitionLimit() {
+    assertThrows(
+        GeneratorException.class,
+        () -> TestUtils.generateNfa(TestUtils.lexSpecOf("(abcdefgh){5000}")));
+  }
+
   private void assertAction(Action action, String expected) {
     assertNotNull(action);
     assertEquals(expected, action.toString());
@@ -192,4 +192,129 @@ public class RegexTest {
           regex.iterator().next();
         });
   }
+
+  @Test
+  void testUnicodeEscapes() {
+    Iterator<RegexToken> iterator = Regex.fromString("\\u00e9\\x{1F600}\\uD83D\\uDE80*").iterator();
+    assertEquals(0xE9, iterator.next().chVal());
+    assertEquals(0x1F600, iterator.next().chVal());
+    RegexToken token = iterator.next();
+    assertEquals(0x1F680, token.chVal());
+    assertEquals('*', token.quantifier());
+    assertFalse(iterator.hasNext());
+  }
+
+  @Test
+  void testSupplementaryLiteral() {
+    Iterator<RegexToken> iterator = Regex.fromString("a\uD83D\uDE00+").iterator();
+    assertEquals('a', iterator.next().chVal());
+    RegexToken token = iterator.next();
+    assertEquals(0x1F600, token.chVal());
+    assertEquals(Range.of(0x1F600), token.range());
+    assertEquals('+', token.quantifier());
+    assertFalse(iterator.hasNext());
+  }
+
+  @Test
+  void testCodePointRange() {
+    String regexStr = "[!-/\\u0391-\\u03C9\\x{1F600}-\\x{1F64F}\\-]";
+    RegexToken token = Regex.fromString(regexStr).iterator().next();
+    assertEquals(
+        List.of(
+            Range.of('!', '/'), Range.of(0x391, 0x3C9), Range.of(0x1F600, 0x1F64F), Range.of('-')),
+        token.ranges());
+  }
+
+  @Test
+  void testExtractAlphabetsOfDotAndInvertedClass() {
+    assertEquals(
+        List.of(Range.of(0, Character.MAX_CODE_POINT)), Regex.fromString("..").extractAlphabets());
+    assertEquals(
+        List.of(Range.of(0, 'a' - 1), Range.of('z' + 1, Character.MAX_CODE_POINT)),
+        Regex.fromString("[^a-z]").extractAlphabets());
+  }
+
+  @Test
+  void testInvalidUnicodeEscape() {
+    for (String regexStr : List.of("\\u12", "\\uXYZW", "\\x{110000}", "\\x{}", "\\x{41", "\\x41")) {
+      assertThrows(GeneratorException.class, () -> Regex.fromString(regexStr).iterator().next());
+    }
+  }
+
+  @Test
+  void testUnicodeCategory() {
+    Iterator<RegexToken> iterator = Regex.fromString("\\p{Nd}+\\P{L}").iterator();
+    RegexToken token = iterator.next();
+    assertEquals(RegexToken.Type.CharClass, token.type());
+    assertEquals('+', token.quantifier());
+    assertTrue(token.ranges().contains(Range.of('0', '9')));
+    assertTrue(token.ranges().contains(Range.of(0x660, 0x669)));
+    token = iterator.next();
+    assertEquals(RegexToken.Type.InvertedCharClass, token.type());
+    assertTrue(token.ranges().contains(Range.of('a', 'z')));
+    assertFalse(iterator.hasNext());
+  }
+
+  @Test
+  void testUnicodeCategoryWithinCharClass() {
+    RegexToken token = Regex.fromString("[_\\p{Lu}\\P{L}]").iterator().next();
+    assertEquals(RegexToken.Type.CharClass, token.type());
+    assertEquals(Range.of('_'), token.ranges().getFirst());
+    assertTrue(token.ranges().contains(Range.of('A', 'Z')));
+    assertTrue(token.ranges().contains(Range.of(0, 'A' - 1)));
+  }
+
+  @Test
+  void testInvalidUnicodeCategory() {
+    for (String regexStr : List.of("\\p{Xy}", "\\pL", "\\p{L", "[\\p{}]")) {
+      assertThrows(GeneratorException.class, () -> Regex.fromString(regexStr).iterator().next());
+    }
+  }
+
+  @Test
+  void testRepetition() {
+    Iterator<RegexToken> iterator = Regex.fromString("a{3}[0-9]{2,}(b){1,5}c}").iterator();
+    RegexToken token = iterator.next();
+    assertEquals('{', token.quantifier());
+    assertEquals(3, token.minRepeat());
+    assertEquals(3, token.maxRepeat());
+    token = iterator.next();
+    assertEquals(2, token.minRepeat());
+    assertEquals(RegexToken.UNBOUNDED, token.maxRepeat());
+    iterator.next();
+    iterator.next();
+    token = iterator.next();
+    assertEquals(RegexToken.Type.RParen, token.type());
+    assertEquals(1, token.minRepeat());
+    assertEquals(5, token.maxRepeat());
+    assertEquals('c', iterator.next().chVal());
+    assertEquals('}', iterator.next().chVal());
+    assertFalse(iterator.hasNext());
+  }
+
+  @Test
+  void testInvalidRepetition() {
+    for (String regexStr : List.of("a{}", "a{3,1}", "a{0}", "a{x}", "a{2", "a{,2}", "a{1234567}")) {
+      assertThrows(GeneratorException.class, () -> Regex.fromString(regexStr).iterator().next());
+    }
+  }
+
+  @Test
+  void testCaseInsensitive() {
+    Iterator<RegexToken> iterator = Regex.fromString("a1[x-zé]+\\p{Lu}", true).iterator();
+    RegexToken token = iterator.next();
+    assertEquals(RegexToken.Type.CharClass, token.type());
+    assertEquals(List.of(Range.of('A'), Range.of('a')), token.ranges());
+    token = iterator.next();
+    assertEquals(RegexToken.Type.Literal, token.type());
+    assertEquals('1', token.chVal());
+    token = iterator.next();
+    assertEquals('+', token.quantifier());
+    assertEquals(
+        List.of(Range.of('X', 'Z'), Range.of('x', 'z'), Range.of('É'), Range.of('é')),
+        token.ranges());
+    token = iterator.next();
+    assertTrue(token.ranges().contains(Range.of('a', 'z')));
+    assertFalse(iterator.hasNext());
+  }
 }
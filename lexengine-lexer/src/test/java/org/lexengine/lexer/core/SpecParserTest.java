@@ -9,6 +9,8 @@ import static org.junit.jupiter.api.Assertions.*;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.List;
+import java.util.Set;
 import org.junit.jupiter.api.Test;
 import org.lexengine.commons.error.GeneratorException;
 
@@ -87,6 +89,167 @@ public class SpecParserTest {
     deleteTempFile(tempFile);
   }
 
+  @Test
+  public void testParseCaseInsensitive() {
+    File tempFile =
+        createTempSpecFile(
+            "caseInsensitive=true\n", "---\n", "\"select\"i { a }\n", "\"from\" { b }\n");
+    LexSpec lexSpec = new SpecParser(tempFile).parse();
+    assertTrue(lexSpec.caseInsensitive());
+    assertTrue(lexSpec.regexActionList().get(0).regex().isCaseInsensitive());
+    assertTrue(lexSpec.regexActionList().get(1).regex().isCaseInsensitive());
+    deleteTempFile(tempFile);
+
+    tempFile = createTempSpecFile("---\n", "\"select\"i { a }\n", "\"from\" { b }\n");
+    lexSpec = new SpecParser(tempFile).parse();
+    assertFalse(lexSpec.caseInsensitive());
+    assertEquals("select", lexSpec.regexActionList().get(0).regex().toString());
+    assertTrue(lexSpec.regexActionList().get(0).regex().isCaseInsensitive());
+    assertFalse(lexSpec.regexActionList().get(1).regex().isCaseInsensitive());
+    deleteTempFile(tempFile);
+  }
+
+  @Test
+  public void testParseKeywordHash() {
+    File tempFile = createTempSpecFile("keywordHash=false\n", "---\n", "\"a\" { a }\n");
+    assertFalse(new SpecParser(tempFile).parse().keywordHash());
+    deleteTempFile(tempFile);
+
+    tempFile = createTempSpecFile("---\n", "\"a\" { a }\n");
+    assertTrue(new SpecParser(tempFile).parse().keywordHash());
+    deleteTempFile(tempFile);
+  }
+
+  @Test
+  public void testParseLineSeparated() {
+    File tempFile = createTempSpecFile("lineSeparated=true\n", "---\n", "\"a\" { a }\n");
+    assertTrue(new SpecParser(tempFile).parse().lineSeparated());
+    deleteTempFile(tempFile);
+
+    tempFile = createTempSpecFile("---\n", "\"a\" { a }\n");
+    assertFalse(new SpecParser(tempFile).parse().lineSeparated());
+    deleteTempFile(tempFile);
+  }
+
+  @Test
+  public void testParseFeatures() {
+    File tempFile =
+        createTempSpecFile("features=document, parallel\n", "---\n", "\"a\" { a }\n");
+    assertEquals(
+        Set.of(LexSpec.Feature.DOCUMENT, LexSpec.Feature.PARALLEL),
+        new SpecParser(tempFile).parse().features());
+    deleteTempFile(tempFile);
+
+    tempFile = createTempSpecFile("---\n", "\"a\" { a }\n");
+    assertTrue(new SpecParser(tempFile).parse().features().isEmpty());
+    deleteTempFile(tempFile);
+
+    File invalidFile =
+        createTempSpecFile("features=document,unknown\n", "---\n", "\"a\" { a }\n");
+    assertThrows(GeneratorException.class, () -> new SpecParser(invalidFile).parse());
+    deleteTempFile(invalidFile);
+  }
+
+  @Test
+  public void testParseCommands() {
+    File tempFile =
+        createTempSpecFile(
+            "---\n",
+            "\"[a-z]+\" { a }\n",
+            "\"[ \\t]+\" -> skip\n",
+            "\"#[^\\n]*\" -> channel( hidden )\n");
+    LexSpec lexSpec = new SpecParser(tempFile).parse();
+    assertEquals(Action.Channel.DEFAULT, lexSpec.regexActionList().get(0).action().channel());
+    assertEquals(Action.Channel.SKIP, lexSpec.regexActionList().get(1).action().channel());
+    assertEquals("", lexSpec.regexActionList().get(1).action().toString());
+    assertEquals(Action.Channel.HIDDEN, lexSpec.regexActionList().get(2).action().channel());
+    deleteTempFile(tempFile);
+  }
+
+  @Test
+  public void testParseInvalidCommands() {
+    for (String rule :
+        new String[] {
+          "\"a\" -> drop", "\"a\" -> skip, channel(hidden)", "\"a\" { a } -> skip", "\"a\""
+        }) {
+      File tempFile = createTempSpecFile("---\n", rule + "\n");
+      assertThrows(GeneratorException.class, () -> new SpecParser(tempFile).parse());
+      deleteTempFile(tempFile);
+    }
+  }
+
+  @Test
+  public void testParseModes() {
+    LexSpec lexSpec = TestUtils.generateLexSpec("lexer-spec-modes.spec");
+    assertEquals(List.of("INITIAL", "STRING", "COMMENT"), lexSpec.modes());
+    assertEquals(6, lexSpec.regexActionList(LexSpec.INITIAL_MODE).size());
+    assertEquals(4, lexSpec.regexActionList("STRING").size());
+    assertEquals(4, lexSpec.regexActionList("COMMENT").size());
+    Action action = lexSpec.regexActionList().get(4).action();
+    assertEquals(Action.Channel.SKIP, action.channel());
+    assertEquals(
+        List.of(new Action.ModeCommand(Action.ModeCommand.Kind.PUSH, "COMMENT")),
+        action.modeCommands());
+  }
+
+  @Test
+  public void testParseInvalidModes() {
+    for (String rule :
+        new String[] {
+          "<1A> \"a\" { a }", "\"a\" -> pushMode()", "\"a\" -> popMode(A)", "\"a\" -> mode(B)"
+        }) {
+      File tempFile = createTempSpecFile("---\n", rule + "\n");
+      assertThrows(GeneratorException.class, () -> new SpecParser(tempFile).parse());
+      deleteTempFile(tempFile);
+    }
+  }
+
+  @Test
+  public void testParseTokenNames() {
+    LexSpec lexSpec = TestUtils.generateLexSpec("lexer-spec-token-types.spec");
+    List<RegexAction> regexActions = lexSpec.regexActionList();
+    assertEquals("IF", regexActions.get(0).action().name());
+    assertEquals("{ return \"if\"; }", regexActions.get(0).action().toString());
+    assertEquals("OP", regexActions.get(4).action().name());
+    assertEquals("OP", regexActions.get(5).action().name());
+    assertNull(regexActions.get(6).action().name());
+    assertNull(regexActions.get(7).action().name());
+  }
+
+  @Test
+  public void testParseInvalidTokenNames() {
+    for (String rule : new String[] {"EOF \"a\" { a }", "1A \"a\" { a }", "A-B \"a\" { a }"}) {
+      File tempFile = createTempSpecFile("---\n", rule + "\n");
+      assertThrows(GeneratorException.class, () -> new SpecParser(tempFile).parse());
+      deleteTempFile(tempFile);
+    }
+  }
+
+  @Test
+  public void testParseInvalidBooleanProperty() {
+    File tempFile = createTempSpecFile("caseInsensitive=yes\n", "---\n", "\"a\" { a }\n");
+    assertThrows(GeneratorException.class, () -> new SpecParser(tempFile).parse());
+    deleteTempFile(tempFile);
+  }
+
+  @Test
+  public void testParseImportsAndInterfaces() {
+    File tempFile =
+        createTempSpecFile(
+            "imports=org.example.Token, org.example.Lexer\n",
+            "implements=Lexer\n",
+            "---\n",
+            "\"a\" { a }\n");
+    LexSpec lexSpec = new SpecParser(tempFile).parse();
+    assertEquals(List.of("org.example.Token", "org.example.Lexer"), lexSpec.imports());
+    assertEquals(List.of("Lexer"), lexSpec.interfaces());
+    deleteTempFile(tempFile);
+
+    File invalidFile = createTempSpecFile("implements=Lexer<T>\n", "---\n", "\"a\" { a }\n");
+    assertThrows(GeneratorException.class, () -> new SpecParser(invalidFile).parse());
+    deleteTempFile(invalidFile);
+  }
+
   private File createTempSpecFile(String... content) {
     try {
       File tempFile = File.createTempFile("temp-spec-file", ".txt");
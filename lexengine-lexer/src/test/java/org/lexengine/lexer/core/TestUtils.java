@@ -21,7 +21,8 @@ public class TestUtils {
     List<RegexAction> regexActionList = lexSpec.regexActionList();
     DisjointIntSet languageAlphabets = new DisjointIntSet();
     LexUtils.extractAlphabetsFromRegex(regexActionList, languageAlphabets);
-    Map<Range, Integer> alphabetsIndex = LexUtils.createAlphabetsIndex(languageAlphabets.ranges());
+    Map<Range, Integer> alphabetsIndex =
+        LexUtils.createAlphabetsIndex(regexActionList, languageAlphabets);
     NfaGenerator nfaGenerator =
         new NfaGenerator(regexActionList, languageAlphabets, alphabetsIndex);
     Nfa nfa = nfaGenerator.generate();
@@ -29,6 +30,18 @@ public class TestUtils {
     return nfa;
   }
 
+  public static Dfa generateDfa(LexSpec lexSpec, String mode) {
+    List<RegexAction> regexActionList = lexSpec.regexActionList();
+    DisjointIntSet languageAlphabets = new DisjointIntSet();
+    LexUtils.extractAlphabetsFromRegex(regexActionList, languageAlphabets);
+    Map<Range, Integer> alphabetsIndex =
+        LexUtils.createAlphabetsIndex(regexActionList, languageAlphabets);
+    Nfa nfa =
+        new NfaGenerator(lexSpec.regexActionList(mode), languageAlphabets, alphabetsIndex)
+            .generate();
+    return new DfaGenerator(nfa).generate();
+  }
+
   public static Dfa generateDfa(LexSpec lexSpec) {
     Nfa nfa = generateNfa(lexSpec);
     return new DfaGenerator(nfa).generate();
@@ -38,6 +51,15 @@ public class TestUtils {
     return new DfaMinimizer(dfa).minimize();
   }
 
+  public static LexSpec lexSpecOf(String... regexes) {
+    LexSpec.Builder builder = LexSpec.builder();
+    for (int i = 0; i < regexes.length; i++) {
+      builder.addRegexAction(
+          new RegexAction(Regex.fromString(regexes[i]), new Action("{" + i + "}")));
+    }
+    return builder.build();
+  }
+
   public static LexSpec generateLexSpec(String specFile) {
     File testSpecFile = new File(TestUtils.class.getClassLoader().getResource(specFile).getFile());
     SpecParser parser = new SpecParser(testSpecFile);
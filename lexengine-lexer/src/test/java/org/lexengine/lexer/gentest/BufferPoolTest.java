@@ -0,0 +1,113 @@
+/*
+* Copyright (c) 2025 lex-engine
+* Author: Pradeesh Kumar
+*/
+package org.lexengine.lexer.gentest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+/** Tests that the scanners return the chunks of their buffers to the pool they share. */
+public class BufferPoolTest {
+
+  @Test
+  public void testCloseReturnsChunks() {
+    String text = TestSources.randomSource(new Random(1), 5000);
+    MyLexer.BufferPoolStats before = MyLexer.bufferPoolStats();
+    List<String> first;
+    try (MyLexer lexer = new MyLexer(new StringReader(text))) {
+      first = TestSources.tokens(lexer);
+    }
+    MyLexer.BufferPoolStats after = MyLexer.bufferPoolStats();
+    assertTrue(after.borrowed() > before.borrowed());
+    assertEquals(outstanding(before), outstanding(after));
+    // The chunks returned by the first scanner are reused by the second one
+    try (MyLexer lexer = new MyLexer(new StringReader(text))) {
+      assertEquals(first, TestSources.tokens(lexer));
+    }
+    MyLexer.BufferPoolStats reused = MyLexer.bufferPoolStats();
+    assertTrue(reused.borrowed() > after.borrowed());
+    assertEquals(after.allocated(), reused.allocated());
+    assertEquals(outstanding(before), outstanding(reused));
+  }
+
+  @Test
+  public void testConcurrentScanners() throws Exception {
+    Random random = new Random(2);
+    List<String> texts = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      texts.add(TestSources.randomSource(random, 1 + random.nextInt(500)));
+    }
+    List<List<String>> expected = new ArrayList<>();
+    for (String text : texts) {
+      try (MyLexer lexer = new MyLexer(new StringReader(text))) {
+        expected.add(TestSources.tokens(lexer));
+      }
+    }
+    MyLexer.BufferPoolStats before = MyLexer.bufferPoolStats();
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Boolean>> results = new ArrayList<>();
+      for (int thread = 0; thread < 8; thread++) {
+        results.add(
+            executor.submit(
+                () -> {
+                  boolean same = true;
+                  for (int i = 0; i < texts.size(); i++) {
+                    try (MyLexer lexer = new MyLexer(new StringReader(texts.get(i)))) {
+                      same &= expected.get(i).equals(TestSources.tokens(lexer));
+                    }
+                  }
+                  return same;
+                }));
+      }
+      for (Future<Boolean> result : results) {
+        assertTrue(result.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+    MyLexer.BufferPoolStats after = MyLexer.bufferPoolStats();
+    long borrowed = after.borrowed() - before.borrowed();
+    long allocated = after.allocated() - before.allocated();
+    assertTrue(borrowed >= 8 * texts.size());
+    // A few chunks per thread at most are allocated, the other ones are reused
+    assertTrue(allocated <= 64, "allocated " + allocated);
+    assertEquals(outstanding(before), outstanding(after));
+    assertTrue(after.idle() <= 256);
+    assertTrue(after.reuseRatio() > 0 && after.reuseRatio() <= 1);
+  }
+
+  @Test
+  public void testServiceClosesScanners() throws Exception {
+    MyLexer.BufferPoolStats before = MyLexer.bufferPoolStats();
+    try (MyLexer.LexingService service = new MyLexer.LexingService(4)) {
+      for (int i = 0; i < 20; i++) {
+        service.submit(
+            MyLexer.LexingService.Source.of("s" + i, "int a = " + i + ";"),
+            new MyLexer.LexingService.Callback() {
+              @Override
+              public void onTokens(MyLexer.LexingService.Source source, MyLexer.Tokens tokens) {}
+
+              @Override
+              public void onError(MyLexer.LexingService.Source source, Exception e) {}
+            });
+      }
+    }
+    // The idle scanners of the service are closed along with it
+    assertEquals(outstanding(before), outstanding(MyLexer.bufferPoolStats()));
+  }
+
+  /** Returns the number of chunks borrowed and not returned. */
+  static long outstanding(MyLexer.BufferPoolStats stats) {
+    return stats.borrowed() - stats.returned();
+  }
+}
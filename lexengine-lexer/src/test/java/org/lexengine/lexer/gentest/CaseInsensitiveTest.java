@@ -0,0 +1,51 @@
+/*
+* Copyright (c) 2025 lex-engine
+* Author: Pradeesh Kumar
+*/
+package org.lexengine.lexer.gentest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.lexengine.lexer.gentest.caseless.CaseInsensitiveLexer;
+
+/** Tests that the case-insensitive rules match their lexemes in any case, and only them. */
+public class CaseInsensitiveTest {
+
+  @Test
+  public void testCaseInsensitiveRules() {
+    CaseInsensitiveLexer lexer =
+        new CaseInsensitiveLexer(new StringReader("SELECT select SeLeCt From fROM"));
+    List<String> tokens = new ArrayList<>();
+    while (lexer.hasNext()) {
+      tokens.add(lexer.next().toString());
+    }
+    assertEquals(
+        List.of(
+            "Token: SELECT", "Token: SELECT", "Token: SELECT", "Token: FROM", "Token: FROM"),
+        tokens);
+  }
+
+  @Test
+  public void testCaseSensitiveRules() {
+    // The rule "Where" of the same spec isn't flagged, the other cases are identifiers
+    CaseInsensitiveLexer lexer = new CaseInsensitiveLexer(new StringReader("Where WHERE where"));
+    List<String> tokens = new ArrayList<>();
+    while (lexer.hasNext()) {
+      tokens.add(lexer.next().toString());
+    }
+    assertEquals(
+        List.of("Token: WHERE", "Token: IDENTIFIER WHERE", "Token: IDENTIFIER where"), tokens);
+    // A spec without case-insensitive rules is scanned as before
+    MyLexer myLexer = new MyLexer(new StringReader("class Class CLASS"));
+    tokens.clear();
+    while (myLexer.hasNext()) {
+      tokens.add(myLexer.next().toString());
+    }
+    assertEquals(
+        List.of("Token: CLASS", "Token: IDENTIFIER Class", "Token: IDENTIFIER CLASS"), tokens);
+  }
+}
@@ -0,0 +1,189 @@
+/*
+* Copyright (c) 2025 lex-engine
+* Author: Pradeesh Kumar
+*/
+package org.lexengine.lexer.gentest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+/** Tests the decoding of the files read by the lexer, against the decoding of the JDK. */
+public class ChannelReaderTest {
+
+  /** Characters of every charset tested, the unmatched ones being scanned as error tokens. */
+  private static final String LATIN_TEXT = "int café = 1; üß à x;\n";
+
+  /** Characters outside of Latin-1, with a surrogate pair. */
+  private static final String UNICODE_TEXT = "€ 中文 😀 yé;\n";
+
+  @Test
+  public void testCharsets() throws IOException {
+    for (Charset charset :
+        List.of(
+            StandardCharsets.UTF_8,
+            StandardCharsets.ISO_8859_1,
+            StandardCharsets.UTF_16LE,
+            StandardCharsets.UTF_16BE,
+            Charset.forName("windows-1252"))) {
+      boolean unicode = charset.name().startsWith("UTF");
+      Path path = writeSource(new byte[0], charset, unicode);
+      String expected = Files.readString(path, charset);
+      try (MyLexer lexer = new MyLexer(path, charset)) {
+        assertEquals(
+            tokens(new MyLexer(new StringReader(expected))), tokens(lexer), charset.name());
+      }
+      Files.delete(path);
+    }
+  }
+
+  @Test
+  public void testByteOrderMarks() throws IOException {
+    byte[][] marks = {
+      {(byte) 0xef, (byte) 0xbb, (byte) 0xbf},
+      {(byte) 0xfe, (byte) 0xff},
+      {(byte) 0xff, (byte) 0xfe}
+    };
+    Charset[] charsets = {
+      StandardCharsets.UTF_8, StandardCharsets.UTF_16BE, StandardCharsets.UTF_16LE
+    };
+    for (int i = 0; i < marks.length; i++) {
+      Path path = writeSource(marks[i], charsets[i], true);
+      String marked = Files.readString(path, charsets[i]);
+      assertEquals('\uFEFF', marked.charAt(0));
+      byte[] bytes = Files.readAllBytes(path);
+      for (Charset charset :
+          List.of(
+              StandardCharsets.UTF_8,
+              StandardCharsets.UTF_16,
+              StandardCharsets.UTF_16BE,
+              StandardCharsets.UTF_16LE,
+              StandardCharsets.ISO_8859_1)) {
+        // The byte order mark of the given charset, or of its UTF-16 family, selects the byte order
+        // and isn't part of the text. The mark of another charset is decoded as text
+        boolean family =
+            charset.name().startsWith("UTF-16")
+                ? charsets[i].name().startsWith("UTF-16")
+                : charset.equals(charsets[i]);
+        String expected = family ? marked.substring(1) : new String(bytes, charset);
+        String name = charsets[i].name() + " read as " + charset.name();
+        try (MyLexer lexer = new MyLexer(path, charset)) {
+          assertEquals(tokens(new MyLexer(new StringReader(expected))), tokens(lexer), name);
+        }
+      }
+      // The lexer is generated with UTF-8, which only skips the mark of UTF-8
+      String expected = i == 0 ? marked.substring(1) : new String(bytes, StandardCharsets.UTF_8);
+      try (MyLexer lexer = new MyLexer(path.toString())) {
+        assertEquals(
+            tokens(new MyLexer(new StringReader(expected))), tokens(lexer), charsets[i].name());
+      }
+      Files.delete(path);
+    }
+  }
+
+  @Test
+  public void testShortFiles() throws IOException {
+    for (String text : List.of("", "a", "ab", "é")) {
+      Path path = Files.createTempFile("source", ".txt");
+      Files.writeString(path, text);
+      try (MyLexer lexer = new MyLexer(path, StandardCharsets.UTF_8)) {
+        assertEquals(tokens(new MyLexer(new StringReader(text))), tokens(lexer), text);
+      }
+      Files.delete(path);
+    }
+  }
+
+  @Test
+  public void testLexingService() throws IOException, InterruptedException {
+    String text = TestSources.randomSource(new Random(5), 20000);
+    Path utf8 = Files.createTempFile("source", ".txt");
+    Files.writeString(utf8, "\uFEFF" + text, StandardCharsets.UTF_8);
+    Path utf16 = Files.createTempFile("source", ".txt");
+    Files.writeString(utf16, "\uFEFF" + text, StandardCharsets.UTF_16LE);
+    Path utf16NoMark = Files.createTempFile("source", ".txt");
+    Files.writeString(utf16NoMark, text, StandardCharsets.UTF_16BE);
+    List<String> expected = TestSources.tokens(new MyLexer(new StringReader(text)));
+    Map<String, List<String>> tokens = new ConcurrentHashMap<>();
+    List<Exception> errors = new CopyOnWriteArrayList<>();
+    try (MyLexer.LexingService service = new MyLexer.LexingService(2)) {
+      MyLexer.LexingService.Callback callback =
+          new MyLexer.LexingService.Callback() {
+            @Override
+            public void onTokens(MyLexer.LexingService.Source source, MyLexer.Tokens result) {
+              List<String> list = new ArrayList<>();
+              for (int i = 0; i < result.count(); i++) {
+                list.add(TestSources.token(result.type(i), result.start(i), result.end(i)));
+              }
+              tokens.put(source.name(), list);
+            }
+
+            @Override
+            public void onError(MyLexer.LexingService.Source source, Exception e) {
+              errors.add(e);
+            }
+          };
+      // The files are decoded as the lexer constructors decode them
+      service.lexFiles(Stream.of(utf8), callback);
+      service.lexAll(
+          Stream.of(
+              MyLexer.LexingService.Source.of(utf16, StandardCharsets.UTF_16),
+              MyLexer.LexingService.Source.of(utf16NoMark, StandardCharsets.UTF_16BE)),
+          callback);
+    }
+    assertEquals(List.of(), errors);
+    for (Path path : List.of(utf8, utf16, utf16NoMark)) {
+      assertEquals(expected, tokens.get(path.toString()), path.toString());
+      Files.delete(path);
+    }
+  }
+
+  /**
+   * Writes a source of several blocks of the reader, so that the characters encoded in several
+   * bytes are split between the blocks.
+   */
+  private static Path writeSource(byte[] byteOrderMark, Charset charset, boolean unicode)
+      throws IOException {
+    Random random = new Random(11);
+    StringBuilder text = new StringBuilder();
+    while (text.length() < 150_000) {
+      text.append(TestSources.randomSource(random, 20)).append(LATIN_TEXT);
+      if (unicode) {
+        text.append(UNICODE_TEXT);
+      }
+    }
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    bytes.write(byteOrderMark);
+    bytes.write(text.toString().getBytes(charset));
+    Path path = Files.createTempFile("source", ".txt");
+    Files.write(path, bytes.toByteArray());
+    return path;
+  }
+
+  /**
+   * Returns the tokens of the given lexer, the unrecognized characters being scanned as error
+   * tokens, each as its type, its offsets and its text.
+   */
+  private static List<String> tokens(MyLexer lexer) {
+    lexer.recoverErrors(MyLexer.Resync.CHARACTER);
+    List<String> tokens = new ArrayList<>();
+    int type;
+    while ((type = lexer.nextType()) != MyLexer.TOKEN_EOF) {
+      tokens.add(TestSources.token(type, lexer.tokenStart(), lexer.tokenEnd()) + lexer.text());
+    }
+    return tokens;
+  }
+}
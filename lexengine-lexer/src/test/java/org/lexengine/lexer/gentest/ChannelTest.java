@@ -0,0 +1,53 @@
+/*
+* Copyright (c) 2025 lex-engine
+* Author: Pradeesh Kumar
+*/
+package org.lexengine.lexer.gentest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.lexengine.lexer.gentest.channels.ChannelLexer;
+
+/** Tests the lexemes the lexer skips, and the ones it records by their offsets. */
+public class ChannelTest {
+
+  @Test
+  public void testHiddenLexemes() {
+    String text = "ab // one\n12 /* two\n */ cd";
+    ChannelLexer lexer = new ChannelLexer(new StringReader(text));
+    assertEquals(List.of("ab", "12", "cd"), values(lexer));
+    assertEquals(2, lexer.hiddenCount());
+    assertEquals("// one", text.substring(lexer.hiddenStart(0), lexer.hiddenEnd(0)));
+    assertEquals("/* two\n */", text.substring(lexer.hiddenStart(1), lexer.hiddenEnd(1)));
+    assertThrows(IndexOutOfBoundsException.class, () -> lexer.hiddenStart(2));
+    assertThrows(IndexOutOfBoundsException.class, () -> lexer.hiddenEnd(-1));
+    lexer.clearHidden();
+    assertEquals(0, lexer.hiddenCount());
+  }
+
+  @Test
+  public void testOffsetsPastTheBuffer() {
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 500; i++) {
+      text.append("x").append(i % 7).append(" /* c" + i + " */ ").append(i).append('\n');
+    }
+    ChannelLexer lexer = new ChannelLexer(new StringReader(text.toString()));
+    assertEquals(1000, values(lexer).size());
+    assertEquals(500, lexer.hiddenCount());
+    for (int i = 0; i < 500; i++) {
+      assertEquals("/* c" + i + " */", text.substring(lexer.hiddenStart(i), lexer.hiddenEnd(i)));
+    }
+  }
+
+  private static List<String> values(ChannelLexer lexer) {
+    List<String> values = new ArrayList<>();
+    while (lexer.hasNext()) {
+      values.add(lexer.next());
+    }
+    return values;
+  }
+}
@@ -0,0 +1,101 @@
+/*
+* Copyright (c) 2025 lex-engine
+* Author: Pradeesh Kumar
+*/
+package org.lexengine.lexer.gentest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/** Tests the tokens of a document against a fresh scan of its text, after random edits. */
+public class DocumentTest {
+
+  @Test
+  public void testTokens() {
+    String text = TestSources.randomSource(new Random(1), 500);
+    assertEquals(
+        TestSources.tokens(new MyLexer(new StringReader(text))),
+        tokens(new MyLexer.Document(text)));
+  }
+
+  @Test
+  public void testRandomEdits() {
+    Random random = new Random(42);
+    String text = TestSources.randomSource(random, 300);
+    MyLexer.Document document = new MyLexer.Document(text);
+    for (int i = 0; i < 1000; i++) {
+      int offset = random.nextInt(text.length() + 1);
+      int removedLength = random.nextInt(Math.min(10, text.length() - offset) + 1);
+      String inserted = random.nextBoolean() ? TestSources.randomSource(random, 3) : "";
+      List<String> before = tokens(document);
+
+      MyLexer.Document.Delta delta = document.edit(offset, removedLength, inserted);
+      text = text.substring(0, offset) + inserted + text.substring(offset + removedLength);
+
+      String edit = "edit " + i + " at " + offset;
+      assertEquals(text, document.text().toString(), edit);
+      List<String> after = tokens(document);
+      assertEquals(tokens(new MyLexer.Document(text)), after, edit);
+      assertDelta(before, after, delta, inserted.length() - removedLength, edit);
+    }
+  }
+
+  @Test
+  public void testDelta() {
+    MyLexer.Document document = new MyLexer.Document("int a = 1;");
+    // Replacing the identifier replaces its token only
+    MyLexer.Document.Delta delta = document.edit(4, 1, "width");
+    assertEquals(new MyLexer.Document.Delta(1, 1, 1), delta);
+    assertEquals("int width = 1;", document.text().toString());
+    // Joining two tokens replaces both by one
+    delta = document.edit(3, 1, "");
+    assertEquals(0, delta.index());
+    assertEquals(2, delta.removedCount());
+    assertEquals(1, delta.insertedCount());
+    assertEquals(4, document.count());
+  }
+
+  @Test
+  public void testInvalidEdit() {
+    MyLexer.Document document = new MyLexer.Document("int a;");
+    assertThrows(IndexOutOfBoundsException.class, () -> document.edit(4, 3, ""));
+    assertThrows(IndexOutOfBoundsException.class, () -> document.edit(-1, 0, "b"));
+  }
+
+  /**
+   * Asserts that the tokens outside the delta are the tokens before the edit, the ones after it
+   * being shifted by the length difference of the edit.
+   */
+  private static void assertDelta(
+      List<String> before,
+      List<String> after,
+      MyLexer.Document.Delta delta,
+      int shift,
+      String edit) {
+    assertEquals(before.size() - delta.removedCount() + delta.insertedCount(), after.size(), edit);
+    assertEquals(before.subList(0, delta.index()), after.subList(0, delta.index()), edit);
+    List<String> shifted = new ArrayList<>();
+    for (String token : before.subList(delta.index() + delta.removedCount(), before.size())) {
+      String[] parts = token.split(":");
+      shifted.add(
+          TestSources.token(
+              Integer.parseInt(parts[0]),
+              Integer.parseInt(parts[1]) + shift,
+              Integer.parseInt(parts[2]) + shift));
+    }
+    assertEquals(shifted, after.subList(delta.index() + delta.insertedCount(), after.size()), edit);
+  }
+
+  private static List<String> tokens(MyLexer.Document document) {
+    List<String> tokens = new ArrayList<>();
+    for (int i = 0; i < document.count(); i++) {
+      tokens.add(TestSources.token(document.type(i), document.start(i), document.end(i)));
+    }
+    return tokens;
+  }
+}
@@ -0,0 +1,143 @@
+/*
+* Copyright (c) 2025 lex-engine
+* Author: Pradeesh Kumar
+*/
+package org.lexengine.lexer.gentest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.lexengine.lexer.gentest.modes.ModeLexer;
+
+/** Tests the error tokens the lexer returns for unrecognized input, with each strategy. */
+public class ErrorRecoveryTest {
+
+  private static final String TEXT = "a @#x;y b";
+
+  @Test
+  public void testCharacter() {
+    // The run ends at the first character starting a lexeme
+    assertEquals(
+        List.of("a", "error 2:4 1", "x", ";", "y", "b"), scan(TEXT, MyLexer.Resync.CHARACTER));
+  }
+
+  @Test
+  public void testWhitespace() {
+    assertEquals(List.of("a", "error 2:7 1", "b"), scan(TEXT, MyLexer.Resync.WHITESPACE));
+  }
+
+  @Test
+  public void testLexemeEnd() {
+    // A lexeme always ends after ';'
+    assertEquals(
+        List.of("a", "error 2:6 1", "y", "b"), scan(TEXT, MyLexer.Resync.LEXEME_END));
+  }
+
+  @Test
+  public void testLexemeEndWithoutSyncCharacters() {
+    // No character always ends a lexeme with several modes, the run ends at a whitespace instead
+    ModeLexer lexer = new ModeLexer(new StringReader("ab @#x cd"));
+    lexer.recoverErrors(ModeLexer.Resync.LEXEME_END);
+    List<String> values = new ArrayList<>();
+    String value;
+    while ((value = lexer.next()) != null) {
+      values.add(value);
+    }
+    assertEquals(List.of("id:ab", "id:cd"), values);
+    assertEquals(1, lexer.errorCount());
+    assertEquals(3, lexer.errorStart(0));
+    assertEquals(6, lexer.errorEnd(0));
+  }
+
+  @Test
+  public void testNoMatch() {
+    // '"' starts a string literal which '@' doesn't continue
+    String text = "\"ab@;";
+    assertEquals(
+        List.of("error 0:1 2", "ab", "error 3:4 1", ";"), scan(text, MyLexer.Resync.CHARACTER));
+    assertEquals(List.of("error 0:5 2"), scan(text, MyLexer.Resync.WHITESPACE));
+    assertEquals(List.of("error 0:5 2"), scan(text, MyLexer.Resync.LEXEME_END));
+  }
+
+  @Test
+  public void testErrorsAtEnd() {
+    for (MyLexer.Resync resync : MyLexer.Resync.values()) {
+      assertEquals(List.of("a", "error 2:4 1"), scan("a @#", resync), resync.name());
+      assertEquals(List.of("error 0:1 1"), scan("@", resync), resync.name());
+    }
+  }
+
+  @Test
+  public void testRecordedErrors() {
+    for (MyLexer.Resync resync : List.of(MyLexer.Resync.CHARACTER, MyLexer.Resync.WHITESPACE)) {
+      MyLexer lexer = new MyLexer(new StringReader("a @# b\n# c"));
+      lexer.recoverErrors(resync);
+      // The error tokens are recorded, and skipped
+      assertEquals(List.of("a", "b", "c"), values(lexer), resync.name());
+      assertEquals(2, lexer.errorCount(), resync.name());
+      assertEquals(2, lexer.errorStart(0));
+      assertEquals(4, lexer.errorEnd(0));
+      assertEquals(MyLexer.ERROR_INVALID_CHARACTER, lexer.errorReason(0));
+      assertEquals(7, lexer.errorStart(1));
+      assertEquals(8, lexer.errorEnd(1));
+      assertThrows(IndexOutOfBoundsException.class, () -> lexer.errorStart(2));
+      lexer.clearErrors();
+      assertEquals(0, lexer.errorCount());
+    }
+    // No character of the source ends a lexeme, the rest of it is skipped
+    MyLexer lexer = new MyLexer(new StringReader("a @# b\n# c"));
+    lexer.recoverErrors(MyLexer.Resync.LEXEME_END);
+    assertEquals(List.of("a"), values(lexer));
+    assertEquals(1, lexer.errorCount());
+    assertEquals(2, lexer.errorStart(0));
+    assertEquals(10, lexer.errorEnd(0));
+  }
+
+  @Test
+  public void testWithoutRecovery() {
+    MyLexer lexer = new MyLexer(new StringReader(TEXT));
+    assertNotEquals(MyLexer.TOKEN_ERROR, lexer.nextType());
+    assertThrows(MyLexer.LexerException.class, lexer::nextType);
+    // Recovering is turned off again with null
+    lexer = new MyLexer(new StringReader(TEXT));
+    lexer.recoverErrors(MyLexer.Resync.CHARACTER);
+    lexer.recoverErrors(null);
+    lexer.nextType();
+    assertThrows(MyLexer.LexerException.class, lexer::nextType);
+  }
+
+  private static List<String> values(MyLexer lexer) {
+    List<String> values = new ArrayList<>();
+    Token token;
+    while ((token = lexer.next()) != null) {
+      values.add(token.stringVal());
+    }
+    return values;
+  }
+
+  /**
+   * Returns the tokens of the given text: the text of the recognized ones, and the offsets and
+   * reason of the error ones.
+   */
+  private static List<String> scan(String text, MyLexer.Resync resync) {
+    MyLexer lexer = new MyLexer(new StringReader(text));
+    lexer.recoverErrors(resync);
+    List<String> tokens = new ArrayList<>();
+    int type;
+    while ((type = lexer.nextType()) != MyLexer.TOKEN_EOF) {
+      if (type == MyLexer.TOKEN_ERROR) {
+        int start = lexer.tokenStart();
+        int end = lexer.tokenEnd();
+        assertEquals(text.substring(start, end), lexer.text());
+        tokens.add("error " + start + ":" + end + " " + lexer.errorReason());
+      } else {
+        assertEquals(0, lexer.errorReason());
+        tokens.add(lexer.text());
+      }
+    }
+    return tokens;
+  }
+}
@@ -0,0 +1,62 @@
+/*
+* Copyright (c) 2025 lex-engine
+* Author: Pradeesh Kumar
+*/
+package org.lexengine.lexer.gentest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/** Tests the batches of tokens filled into arrays against the tokens scanned one by one. */
+public class FillTest {
+
+  @Test
+  public void testFill() {
+    String text = TestSources.randomSource(new Random(34), 5000);
+    List<String> expected = TestSources.tokens(new MyLexer(new StringReader(text)));
+    for (int size : new int[] {1, 7, 4096}) {
+      MyLexer lexer = new MyLexer(new StringReader(text));
+      int[] types = new int[size];
+      int[] starts = new int[size];
+      int[] ends = new int[size];
+      List<String> tokens = new ArrayList<>();
+      int count;
+      while ((count = lexer.fill(types, starts, ends)) > 0) {
+        for (int i = 0; i < count; i++) {
+          tokens.add(TestSources.token(types[i], starts[i], ends[i]));
+        }
+        if (count == size) {
+          // The current token is the last one filled
+          assertEquals(starts[count - 1], lexer.tokenStart());
+          assertEquals(ends[count - 1], lexer.tokenEnd());
+        } else {
+          // The arrays aren't filled, the current token is the end of input
+          assertEquals(text.length(), lexer.tokenStart());
+          assertEquals(text.length(), lexer.tokenEnd());
+        }
+      }
+      assertEquals(expected, tokens, "size " + size);
+      assertEquals(0, lexer.fill(types, starts, ends));
+    }
+  }
+
+  @Test
+  public void testShortestArray() {
+    MyLexer lexer = new MyLexer(new StringReader("int a = 1;"));
+    int[] types = new int[8];
+    int[] starts = new int[3];
+    int[] ends = new int[8];
+    assertEquals(3, lexer.fill(types, starts, ends));
+    assertArrayEquals(new int[] {0, 4, 6}, starts);
+    assertEquals(7, ends[2]);
+    assertEquals(2, lexer.fill(types, starts, ends));
+    assertEquals(8, starts[0]);
+    assertEquals(10, ends[1]);
+    assertEquals(0, lexer.fill(types, starts, ends));
+  }
+}
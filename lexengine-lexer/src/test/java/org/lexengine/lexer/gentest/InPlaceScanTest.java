@@ -0,0 +1,103 @@
+/*
+* Copyright (c) 2025 lex-engine
+* Author: Pradeesh Kumar
+*/
+package org.lexengine.lexer.gentest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/** Tests the lexers scanning arrays and texts in place, against the scan of a reader. */
+public class InPlaceScanTest {
+
+  @Test
+  public void testWholeArray() {
+    String text = TestSources.randomSource(new Random(21), 20000);
+    List<String> expected = TestSources.tokens(new MyLexer(new StringReader(text)));
+    assertEquals(expected, TestSources.tokens(new MyLexer(text.toCharArray())));
+    assertEquals(expected, TestSources.tokens(new MyLexer(text, 0, text.length())));
+  }
+
+  @Test
+  public void testParts() {
+    Random random = new Random(22);
+    String text = TestSources.randomSource(random, 2000);
+    char[] chars = text.toCharArray();
+    for (int i = 0; i < 200; i++) {
+      // The part may split a lexeme at either end
+      int offset = random.nextInt(text.length() + 1);
+      int length = random.nextInt(text.length() - offset + 1);
+      List<String> expected = shifted(text.substring(offset, offset + length), offset);
+      String part = offset + "+" + length;
+      assertEquals(expected, TestSources.tokens(new MyLexer(chars, offset, length)), part);
+      assertEquals(expected, TestSources.tokens(new MyLexer(text, offset, length)), part);
+      assertEquals(
+          expected,
+          TestSources.tokens(new MyLexer(new StringBuilder(text), offset, length)),
+          part);
+    }
+  }
+
+  @Test
+  public void testText() {
+    String text = "x = width; if (a <= 123) a = a + 1;";
+    int offset = 4;
+    int length = text.length() - 8;
+    for (MyLexer lexer :
+        List.of(
+            new MyLexer(text.toCharArray(), offset, length),
+            new MyLexer(text, offset, length))) {
+      List<String> texts = new ArrayList<>();
+      while (lexer.nextType() != MyLexer.TOKEN_EOF) {
+        // The offsets are indices in the whole text
+        assertEquals(text.substring(lexer.tokenStart(), lexer.tokenEnd()), lexer.text());
+        texts.add(lexer.text());
+      }
+      assertEquals(List.of("width", ";", "if", "(", "a", "<=", "123", ")", "a", "=", "a"), texts);
+    }
+  }
+
+  @Test
+  public void testLinesAndColumns() {
+    String text = "int a;\n  if (a)\n\n    a = 1;\n";
+    int offset = 4;
+    MyLexer lexer = new MyLexer(text, offset, text.length() - offset);
+    while (lexer.nextType() != MyLexer.TOKEN_EOF) {
+      // The lines are those of the whole text, as the offsets are
+      int start = lexer.tokenStart();
+      int lineStart = text.lastIndexOf('\n', start - 1) + 1;
+      String before = text.substring(0, start);
+      int line = (int) before.chars().filter(c -> c == '\n').count() + 1;
+      assertEquals(line, lexer.line(start), "line at " + start);
+      assertEquals(start - lineStart + 1, lexer.column(start), "column at " + start);
+    }
+  }
+
+  @Test
+  public void testInvalidParts() {
+    char[] chars = "int a;".toCharArray();
+    assertThrows(IndexOutOfBoundsException.class, () -> new MyLexer(chars, -1, 2));
+    assertThrows(IndexOutOfBoundsException.class, () -> new MyLexer(chars, 2, 5));
+    assertThrows(IndexOutOfBoundsException.class, () -> new MyLexer("int a;", 7, 0));
+    assertThrows(IndexOutOfBoundsException.class, () -> new MyLexer("int a;", 0, -1));
+  }
+
+  /**
+   * Returns the tokens of the given part scanned from a reader, with the offsets shifted to the
+   * indices of the part in its whole text.
+   */
+  private static List<String> shifted(String part, int offset) {
+    MyLexer lexer = new MyLexer(new StringReader(part));
+    List<String> tokens = new ArrayList<>();
+    int type;
+    while ((type = lexer.nextType()) != MyLexer.TOKEN_EOF) {
+      tokens.add(TestSources.token(type, offset + lexer.tokenStart(), offset + lexer.tokenEnd()));
+    }
+    return tokens;
+  }
+}
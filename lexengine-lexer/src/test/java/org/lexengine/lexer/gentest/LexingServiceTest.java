@@ -0,0 +1,183 @@
+/*
+* Copyright (c) 2025 lex-engine
+* Author: Pradeesh Kumar
+*/
+package org.lexengine.lexer.gentest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+/** Tests the tokens, callbacks and metrics of the LexingService against sequential scans. */
+public class LexingServiceTest {
+
+  @Test
+  public void testLexAll() throws Exception {
+    Random random = new Random(5);
+    List<String> texts = new ArrayList<>();
+    for (int i = 0; i < 300; i++) {
+      texts.add(TestSources.randomSource(random, random.nextInt(200)));
+    }
+    AtomicInteger inFlight = new AtomicInteger();
+    AtomicInteger maxInFlight = new AtomicInteger();
+    Map<String, List<String>> results = new ConcurrentHashMap<>();
+    AtomicInteger callbacks = new AtomicInteger();
+    MyLexer.LexingService service = new MyLexer.LexingService(2);
+    try (service) {
+      service.lexAll(
+          IntStream.range(0, texts.size())
+              .mapToObj(i -> new CountingSource("s" + i, texts.get(i), inFlight, maxInFlight)),
+          new MyLexer.LexingService.Callback() {
+            @Override
+            public void onTokens(MyLexer.LexingService.Source source, MyLexer.Tokens tokens) {
+              callbacks.incrementAndGet();
+              results.put(source.name(), tokens(tokens));
+            }
+
+            @Override
+            public void onError(MyLexer.LexingService.Source source, Exception e) {
+              callbacks.incrementAndGet();
+              fail(source.name() + ": " + e);
+            }
+          });
+      // A scanner is taken by each source lexed at once, and restarted for the next ones
+      assertTrue(scanners(service).size() <= 2, "scanners " + scanners(service).size());
+    }
+    assertEquals(texts.size(), callbacks.get());
+    assertTrue(maxInFlight.get() <= 2, "in flight " + maxInFlight.get());
+    long tokenCount = 0;
+    for (int i = 0; i < texts.size(); i++) {
+      List<String> expected = TestSources.tokens(new MyLexer(new StringReader(texts.get(i))));
+      assertEquals(expected, results.get("s" + i), "s" + i);
+      tokenCount += expected.size();
+    }
+    MyLexer.LexingService.Metrics metrics = service.metrics();
+    assertEquals(texts.size(), metrics.sources());
+    assertEquals(tokenCount, metrics.tokens());
+    assertEquals(0, metrics.errors());
+  }
+
+  @Test
+  public void testErrors() throws Exception {
+    // The scanner failing within a lexeme is restarted for the following sources
+    List<String> texts = List.of("a \"abc @", "int x = 1;", "if (a <= b) {}", "@");
+    List<String> events = new ArrayList<>();
+    MyLexer.LexingService service = new MyLexer.LexingService(1);
+    try (service) {
+      MyLexer.LexingService.Callback callback =
+          new MyLexer.LexingService.Callback() {
+            @Override
+            public void onTokens(MyLexer.LexingService.Source source, MyLexer.Tokens tokens) {
+              events.add(source.name() + " " + tokens(tokens));
+            }
+
+            @Override
+            public void onError(MyLexer.LexingService.Source source, Exception e) {
+              events.add(source.name() + " " + e.getClass().getSimpleName());
+            }
+          };
+      service.lexAll(
+          Stream.concat(
+              IntStream.range(0, texts.size())
+                  .mapToObj(i -> MyLexer.LexingService.Source.of("s" + i, texts.get(i))),
+              Stream.of(new FailingSource())),
+          callback);
+      assertEquals(1, scanners(service).size());
+    }
+    assertEquals(
+        List.of(
+            "s0 LexerException",
+            "s1 " + TestSources.tokens(new MyLexer(new StringReader(texts.get(1)))),
+            "s2 " + TestSources.tokens(new MyLexer(new StringReader(texts.get(2)))),
+            "s3 LexerException",
+            "failing IOException"),
+        events);
+    MyLexer.LexingService.Metrics metrics = service.metrics();
+    assertEquals(2, metrics.sources());
+    assertEquals(3, metrics.errors());
+  }
+
+  @Test
+  public void testInvalidConcurrency() {
+    assertThrows(IllegalArgumentException.class, () -> new MyLexer.LexingService(0));
+  }
+
+  private static List<String> tokens(MyLexer.Tokens tokens) {
+    List<String> list = new ArrayList<>();
+    for (int i = 0; i < tokens.count(); i++) {
+      list.add(TestSources.token(tokens.type(i), tokens.start(i), tokens.end(i)));
+    }
+    return list;
+  }
+
+  private static Queue<?> scanners(MyLexer.LexingService service)
+      throws ReflectiveOperationException {
+    Field field = MyLexer.LexingService.class.getDeclaredField("scanners");
+    field.setAccessible(true);
+    return (Queue<?>) field.get(service);
+  }
+
+  /** A source counting the sources open at once, each staying open for a millisecond. */
+  private static final class CountingSource implements MyLexer.LexingService.Source {
+
+    private final String name;
+    private final String text;
+    private final AtomicInteger inFlight;
+    private final AtomicInteger maxInFlight;
+
+    CountingSource(String name, String text, AtomicInteger inFlight, AtomicInteger maxInFlight) {
+      this.name = name;
+      this.text = text;
+      this.inFlight = inFlight;
+      this.maxInFlight = maxInFlight;
+    }
+
+    @Override
+    public String name() {
+      return name;
+    }
+
+    @Override
+    public Reader open() throws IOException {
+      maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+      try {
+        Thread.sleep(1);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return new StringReader(text) {
+        @Override
+        public void close() {
+          inFlight.decrementAndGet();
+        }
+      };
+    }
+  }
+
+  /** A source which can't be opened. */
+  private static final class FailingSource implements MyLexer.LexingService.Source {
+
+    @Override
+    public String name() {
+      return "failing";
+    }
+
+    @Override
+    public Reader open() throws IOException {
+      throw new IOException("Cannot open");
+    }
+  }
+}
@@ -0,0 +1,59 @@
+/*
+* Copyright (c) 2025 lex-engine
+* Author: Pradeesh Kumar
+*/
+package org.lexengine.lexer.gentest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.lexengine.lexer.gentest.modes.ModeLexer;
+
+/** Tests the modes entered and left by the commands of the rules, and by the methods. */
+public class ModeTest {
+
+  @Test
+  public void testPushAndPopMode() {
+    // The interpolation pushes INITIAL over STRING, the closing brace pops back into the string
+    assertEquals(
+        List.of("id:a", "begin", "text:x ", "interp", "id:b", "text: y", "end", "id:c"),
+        values("a \"x ${b} y\" c"));
+  }
+
+  @Test
+  public void testNestedModes() {
+    // Each "/*" pushes COMMENT again, each "*/" pops it
+    assertEquals(List.of("id:a", "id:b"), values("a /* x /* y */ \"z\" */ b"));
+    // The rule of every mode is recognized inside and outside the string
+    assertEquals(List.of("begin", "nul", "end", "nul"), values("\"\0\"\0"));
+  }
+
+  @Test
+  public void testModeMethods() {
+    ModeLexer lexer = new ModeLexer(new StringReader("\"a\" b"));
+    assertEquals(ModeLexer.MODE_INITIAL, lexer.mode());
+    assertEquals("begin", lexer.next());
+    assertEquals(ModeLexer.MODE_STRING, lexer.mode());
+    lexer.pushMode(ModeLexer.MODE_INITIAL);
+    assertEquals("id:a", lexer.next());
+    lexer.popMode();
+    assertEquals("end", lexer.next());
+    assertEquals(ModeLexer.MODE_INITIAL, lexer.mode());
+    assertThrows(ModeLexer.LexerException.class, lexer::popMode);
+    assertThrows(IllegalArgumentException.class, () -> lexer.mode(-1));
+    lexer.mode(ModeLexer.MODE_COMMENT);
+    assertNull(lexer.next());
+  }
+
+  private static List<String> values(String text) {
+    ModeLexer lexer = new ModeLexer(new StringReader(text));
+    List<String> values = new ArrayList<>();
+    while (lexer.hasNext()) {
+      values.add(lexer.next());
+    }
+    return values;
+  }
+}
@@ -0,0 +1,71 @@
+/*
+* Copyright (c) 2025 lex-engine
+* Author: Pradeesh Kumar
+*/
+package org.lexengine.lexer.gentest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+/** Tests the tokens of scanParallel against a sequential scan of the same text. */
+public class ParallelScanTest {
+
+  @Test
+  public void testScanParallel() {
+    String text = TestSources.randomSource(new Random(7), 20000);
+    List<String> expected = TestSources.tokens(new MyLexer(new StringReader(text)));
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      for (int chunkCount : new int[] {1, 2, 3, 7, 16, 64, 1000}) {
+        assertEquals(
+            expected, tokens(MyLexer.scanParallel(text, chunkCount, pool)), "chunks " + chunkCount);
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testScanParallelStrings() throws IOException {
+    // The chunks starting within a string literal are scanned speculatively with wrong tokens
+    String source =
+        Files.readString(
+            Path.of(getClass().getClassLoader().getResource("test-valid-source.txt").getFile()));
+    String text = source.repeat(50);
+    List<String> expected = TestSources.tokens(new MyLexer(new StringReader(text)));
+    for (int chunkCount = 1; chunkCount <= 40; chunkCount++) {
+      assertEquals(
+          expected, tokens(MyLexer.scanParallel(text, chunkCount)), "chunks " + chunkCount);
+    }
+  }
+
+  @Test
+  public void testScanParallelShortText() {
+    assertEquals(List.of(), tokens(MyLexer.scanParallel("", 4)));
+    assertEquals(
+        TestSources.tokens(new MyLexer(new StringReader("a<=b"))),
+        tokens(MyLexer.scanParallel("a<=b", 16)));
+  }
+
+  @Test
+  public void testInvalidChunkCount() {
+    assertThrows(IllegalArgumentException.class, () -> MyLexer.scanParallel("a", 0));
+  }
+
+  private static List<String> tokens(MyLexer.Tokens tokens) {
+    List<String> list = new ArrayList<>();
+    for (int i = 0; i < tokens.count(); i++) {
+      list.add(TestSources.token(tokens.type(i), tokens.start(i), tokens.end(i)));
+    }
+    return list;
+  }
+}
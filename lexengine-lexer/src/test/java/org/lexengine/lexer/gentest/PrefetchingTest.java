@@ -0,0 +1,83 @@
+/*
+* Copyright (c) 2025 lex-engine
+* Author: Pradeesh Kumar
+*/
+package org.lexengine.lexer.gentest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.Test;
+
+/** Tests the lexers reading their source ahead, against the sequential scan. */
+public class PrefetchingTest {
+
+  @Test
+  public void testFiles() throws IOException {
+    // Several blocks of the prefetching reader
+    String text = TestSources.randomSource(new Random(11), 100000);
+    List<String> expected = TestSources.tokens(new MyLexer(new StringReader(text)));
+    for (Charset charset :
+        List.of(StandardCharsets.UTF_8, StandardCharsets.UTF_16LE, StandardCharsets.ISO_8859_1)) {
+      Path path = Files.createTempFile("source", ".txt");
+      Files.writeString(path, text, charset);
+      try (MyLexer lexer = MyLexer.prefetching(path, charset)) {
+        assertEquals(expected, TestSources.tokens(lexer), charset.name());
+      }
+      Files.delete(path);
+    }
+  }
+
+  @Test
+  public void testGzipFiles() throws IOException {
+    String text = TestSources.randomSource(new Random(12), 100000);
+    List<String> expected = TestSources.tokens(new MyLexer(new StringReader(text)));
+    for (Charset charset : List.of(StandardCharsets.UTF_8, StandardCharsets.UTF_16BE)) {
+      Path path = Files.createTempFile("source", ".txt.gz");
+      try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(path))) {
+        out.write(text.getBytes(charset));
+      }
+      try (MyLexer lexer = MyLexer.prefetching(path, charset)) {
+        assertEquals(expected, TestSources.tokens(lexer), charset.name());
+      }
+      Files.delete(path);
+    }
+  }
+
+  @Test
+  public void testStreams() {
+    String text = TestSources.randomSource(new Random(13), 100);
+    // Empty, shorter than a block, and exactly filling two blocks
+    for (String source : List.of("", text, text + "x".repeat(2 * (1 << 15) - text.length()))) {
+      List<String> expected = TestSources.tokens(new MyLexer(new StringReader(source)));
+      try (MyLexer lexer =
+          MyLexer.prefetching(
+              new ByteArrayInputStream(source.getBytes(StandardCharsets.UTF_8)),
+              StandardCharsets.UTF_8)) {
+        assertEquals(expected, TestSources.tokens(lexer), "length " + source.length());
+      }
+    }
+  }
+
+  @Test
+  public void testCloseBeforeEnd() {
+    String text = TestSources.randomSource(new Random(14), 100000);
+    MyLexer lexer =
+        MyLexer.prefetching(
+            new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)),
+            StandardCharsets.UTF_8);
+    assertNotEquals(MyLexer.TOKEN_EOF, lexer.nextType());
+    // The reading thread stops while blocks remain unread
+    lexer.close();
+  }
+}
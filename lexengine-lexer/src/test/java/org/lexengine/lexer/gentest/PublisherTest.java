@@ -0,0 +1,249 @@
+/*
+* Copyright (c) 2025 lex-engine
+* Author: Pradeesh Kumar
+*/
+package org.lexengine.lexer.gentest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/** Tests the tokens published to a subscriber against the tokens of next(). */
+public class PublisherTest {
+
+  @Test
+  public void testSlowSubscriber() throws Exception {
+    String text = TestSources.randomSource(new Random(1), 5000);
+    List<String> tokens = new ArrayList<>();
+    CompletableFuture<Void> done = new CompletableFuture<>();
+    new MyLexer(new StringReader(text))
+        .publisher()
+        .subscribe(
+            new Flow.Subscriber<Token>() {
+              private Flow.Subscription subscription;
+
+              @Override
+              public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+              }
+
+              @Override
+              public void onNext(Token token) {
+                tokens.add(token.toString());
+                if (tokens.size() % 500 == 0) {
+                  sleep();
+                }
+                subscription.request(1);
+              }
+
+              @Override
+              public void onError(Throwable e) {
+                done.completeExceptionally(e);
+              }
+
+              @Override
+              public void onComplete() {
+                done.complete(null);
+              }
+            });
+    done.get(30, TimeUnit.SECONDS);
+    assertEquals(next(text), tokens);
+  }
+
+  @Test
+  public void testSubmissionPublisher() throws Exception {
+    // The tokens are relayed to a slow consumer through a publisher of 4 slots
+    String text = TestSources.randomSource(new Random(2), 5000);
+    ExecutorService scanning = Executors.newSingleThreadExecutor();
+    ExecutorService consuming = Executors.newSingleThreadExecutor();
+    try (SubmissionPublisher<Token> relay = new SubmissionPublisher<>(consuming, 4)) {
+      List<String> tokens = new ArrayList<>();
+      CompletableFuture<Void> consumed =
+          relay.consume(
+              token -> {
+                tokens.add(token.toString());
+                if (tokens.size() % 500 == 0) {
+                  sleep();
+                }
+              });
+      new MyLexer(new StringReader(text))
+          .publisher(scanning)
+          .subscribe(
+              new Flow.Subscriber<Token>() {
+                @Override
+                public void onSubscribe(Flow.Subscription subscription) {
+                  subscription.request(Long.MAX_VALUE);
+                }
+
+                @Override
+                public void onNext(Token token) {
+                  relay.submit(token);
+                }
+
+                @Override
+                public void onError(Throwable e) {
+                  relay.closeExceptionally(e);
+                }
+
+                @Override
+                public void onComplete() {
+                  relay.close();
+                }
+              });
+      consumed.get(30, TimeUnit.SECONDS);
+      assertEquals(next(text), tokens);
+    } finally {
+      scanning.shutdown();
+      consuming.shutdown();
+    }
+  }
+
+  @Test
+  public void testRequest() {
+    // Scanned on the calling thread, the tokens are signalled before request returns
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    new MyLexer(new StringReader("int a = 1; int b = 2;"))
+        .publisher(Runnable::run)
+        .subscribe(subscriber);
+    subscriber.subscription.request(5);
+    assertEquals(
+        List.of(
+            "Token: INT",
+            "Token: IDENTIFIER a",
+            "Token: EQ",
+            "Token: INTEGER 1",
+            "Token: SEMICOLON"),
+        subscriber.events);
+    subscriber.subscription.request(Long.MAX_VALUE);
+    assertEquals(11, subscriber.events.size());
+    assertEquals("complete", subscriber.events.get(10));
+  }
+
+  @Test
+  public void testCancel() {
+    MyLexer.BufferPoolStats before = MyLexer.bufferPoolStats();
+    boolean[] closed = new boolean[1];
+    StringReader reader =
+        new StringReader("int a = 1; int b = 2;") {
+          @Override
+          public void close() {
+            closed[0] = true;
+          }
+        };
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    new MyLexer(reader).publisher(Runnable::run).subscribe(subscriber);
+    subscriber.subscription.request(2);
+    subscriber.subscription.cancel();
+    subscriber.subscription.request(2);
+    // No token nor terminal signal follows the cancellation
+    assertEquals(List.of("Token: INT", "Token: IDENTIFIER a"), subscriber.events);
+    assertTrue(closed[0]);
+    // The chunks of the buffer are returned to the pool
+    MyLexer.BufferPoolStats after = MyLexer.bufferPoolStats();
+    assertTrue(after.borrowed() > before.borrowed());
+    assertEquals(BufferPoolTest.outstanding(before), BufferPoolTest.outstanding(after));
+  }
+
+  @Test
+  public void testThrowingSubscriber() {
+    MyLexer.BufferPoolStats before = MyLexer.bufferPoolStats();
+    RecordingSubscriber subscriber =
+        new RecordingSubscriber() {
+          @Override
+          public void onNext(Token token) {
+            super.onNext(token);
+            if (events.size() == 3) {
+              throw new IllegalStateException("Thrown by the subscriber");
+            }
+          }
+        };
+    new MyLexer(new StringReader("int a = 1; int b = 2;"))
+        .publisher(Runnable::run)
+        .subscribe(subscriber);
+    subscriber.subscription.request(5);
+    subscriber.subscription.request(2);
+    subscriber.subscription.request(2);
+    // The subscription is cancelled, and the chunks of the buffer are returned to the pool
+    assertEquals(List.of("Token: INT", "Token: IDENTIFIER a", "Token: EQ"), subscriber.events);
+    assertEquals(
+        BufferPoolTest.outstanding(before),
+        BufferPoolTest.outstanding(MyLexer.bufferPoolStats()));
+  }
+
+  @Test
+  public void testInvalidRequest() {
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    new MyLexer(new StringReader("int a;")).publisher(Runnable::run).subscribe(subscriber);
+    subscriber.subscription.request(0);
+    assertEquals(List.of("error IllegalArgumentException"), subscriber.events);
+    subscriber.subscription.request(1);
+    assertEquals(1, subscriber.events.size());
+  }
+
+  @Test
+  public void testSecondSubscriber() {
+    Flow.Publisher<Token> publisher =
+        new MyLexer(new StringReader("int a;")).publisher(Runnable::run);
+    publisher.subscribe(new RecordingSubscriber());
+    RecordingSubscriber second = new RecordingSubscriber();
+    publisher.subscribe(second);
+    assertEquals(List.of("error IllegalStateException"), second.events);
+  }
+
+  private static List<String> next(String text) {
+    MyLexer lexer = new MyLexer(new StringReader(text));
+    List<String> tokens = new ArrayList<>();
+    Token token;
+    while ((token = lexer.next()) != null) {
+      tokens.add(token.toString());
+    }
+    return tokens;
+  }
+
+  private static void sleep() {
+    try {
+      Thread.sleep(5);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /** A subscriber recording the tokens and the terminal signal, requesting nothing by itself. */
+  private static class RecordingSubscriber implements Flow.Subscriber<Token> {
+
+    final List<String> events = new ArrayList<>();
+
+    private Flow.Subscription subscription;
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+    }
+
+    @Override
+    public void onNext(Token token) {
+      events.add(token.toString());
+    }
+
+    @Override
+    public void onError(Throwable e) {
+      events.add("error " + e.getClass().getSimpleName());
+    }
+
+    @Override
+    public void onComplete() {
+      events.add("complete");
+    }
+  }
+}
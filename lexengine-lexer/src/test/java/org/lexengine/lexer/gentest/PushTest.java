@@ -0,0 +1,164 @@
+/*
+* Copyright (c) 2025 lex-engine
+* Author: Pradeesh Kumar
+*/
+package org.lexengine.lexer.gentest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/** Tests the tokens of the scanners fed in chunks against the tokens pulled from a reader. */
+public class PushTest {
+
+  /** Lexemes outside ASCII, of 2, 3 and 4 bytes in UTF-8, the last ones being surrogate pairs. */
+  private static final String[] NON_ASCII_LEXEMES = {"αβγ", "λ", "€", "😀", "😀😀😀"};
+
+  @Test
+  public void testFeedChars() {
+    String text = source(new Random(1));
+    List<String> tokens = new ArrayList<>();
+    MyLexer lexer = new MyLexer(token -> tokens.add(String.valueOf(token)));
+    for (int i = 0; i < text.length(); i++) {
+      lexer.feed(CharBuffer.wrap(text, i, i + 1));
+    }
+    lexer.endOfInput();
+    assertEquals(pull(text), tokens);
+  }
+
+  @Test
+  public void testFeedBytes() {
+    String text = source(new Random(2));
+    byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+    List<String> tokens = new ArrayList<>();
+    MyLexer lexer = new MyLexer(token -> tokens.add(String.valueOf(token)));
+    for (int i = 0; i < bytes.length; i++) {
+      lexer.feed(ByteBuffer.wrap(bytes, i, 1));
+    }
+    lexer.endOfInput();
+    assertEquals(pull(text), tokens);
+  }
+
+  @Test
+  public void testFeedRandomChunks() {
+    Random random = new Random(3);
+    String text = source(random);
+    byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+    List<String> expected = pull(text);
+    for (int maxChunk : new int[] {2, 3, 17, 4096}) {
+      List<String> byteTokens = new ArrayList<>();
+      MyLexer byteLexer = new MyLexer(token -> byteTokens.add(String.valueOf(token)));
+      for (int i = 0; i < bytes.length; ) {
+        int length = Math.min(bytes.length - i, 1 + random.nextInt(maxChunk));
+        byteLexer.feed(ByteBuffer.wrap(bytes, i, length));
+        i += length;
+      }
+      byteLexer.endOfInput();
+      assertEquals(expected, byteTokens, "byte chunks " + maxChunk);
+      List<String> charTokens = new ArrayList<>();
+      MyLexer charLexer = new MyLexer(token -> charTokens.add(String.valueOf(token)));
+      for (int i = 0; i < text.length(); ) {
+        int length = Math.min(text.length() - i, 1 + random.nextInt(maxChunk));
+        charLexer.feed(CharBuffer.wrap(text, i, i + length));
+        i += length;
+      }
+      charLexer.endOfInput();
+      assertEquals(expected, charTokens, "char chunks " + maxChunk);
+    }
+  }
+
+  @Test
+  public void testBufferBoundedByLexeme() {
+    String text = source(new Random(4)) + TestSources.randomSource(new Random(5), 50000);
+    int longest = 0;
+    try (MyLexer lexer = new MyLexer(new StringReader(text))) {
+      while (lexer.nextType() != MyLexer.TOKEN_EOF) {
+        longest = Math.max(longest, lexer.tokenEnd() - lexer.tokenStart());
+      }
+    }
+    MyLexer.BufferPoolStats before = MyLexer.bufferPoolStats();
+    long maxChunks = 0;
+    try (MyLexer lexer = new MyLexer(token -> {})) {
+      for (int i = 0; i < text.length(); i += 100) {
+        lexer.feed(CharBuffer.wrap(text, i, Math.min(text.length(), i + 100)));
+        maxChunks =
+            Math.max(
+                maxChunks,
+                BufferPoolTest.outstanding(MyLexer.bufferPoolStats())
+                    - BufferPoolTest.outstanding(before));
+      }
+      lexer.endOfInput();
+    }
+    // The buffer holds the lexeme in flight and the characters fed after it, in chunks of 1024
+    assertTrue(maxChunks <= longest / 1024 + 3, maxChunks + " chunks, longest " + longest);
+    assertTrue(maxChunks < text.length() / 1024 / 4, maxChunks + " chunks");
+    assertEquals(
+        BufferPoolTest.outstanding(before),
+        BufferPoolTest.outstanding(MyLexer.bufferPoolStats()));
+  }
+
+  @Test
+  public void testTokenCompletedByNextChunk() {
+    List<String> tokens = new ArrayList<>();
+    MyLexer lexer = new MyLexer(token -> tokens.add(String.valueOf(token)));
+    lexer.feed(CharBuffer.wrap("int ab"));
+    // The identifier may go on in the next chunk
+    assertEquals(List.of("Token: INT"), tokens);
+    lexer.feed(CharBuffer.wrap("c;"));
+    // A semicolon always ends its lexeme
+    assertEquals(List.of("Token: INT", "Token: IDENTIFIER abc", "Token: SEMICOLON"), tokens);
+    lexer.feed(ByteBuffer.wrap(new byte[] {(byte) 0xce}));
+    lexer.feed(ByteBuffer.wrap(new byte[] {(byte) 0xbb}));
+    assertEquals(3, tokens.size());
+    lexer.endOfInput();
+    assertEquals(
+        List.of("Token: INT", "Token: IDENTIFIER abc", "Token: SEMICOLON", "Token: IDENTIFIER λ"),
+        tokens);
+  }
+
+  @Test
+  public void testInvalidFeed() {
+    MyLexer lexer = new MyLexer(token -> {});
+    lexer.endOfInput();
+    assertThrows(IllegalStateException.class, () -> lexer.feed(CharBuffer.wrap("a")));
+    assertThrows(IllegalStateException.class, lexer::endOfInput);
+    MyLexer reader = new MyLexer(new StringReader("a"));
+    assertThrows(IllegalStateException.class, () -> reader.feed(CharBuffer.wrap("a")));
+  }
+
+  /**
+   * Returns a random source with lexemes outside ASCII, and a string literal longer than the
+   * buffer.
+   */
+  private static String source(Random random) {
+    StringBuilder source = new StringBuilder();
+    for (int i = 0; i < 5000; i++) {
+      if (random.nextInt(10) == 0) {
+        source.append(' ').append(NON_ASCII_LEXEMES[random.nextInt(NON_ASCII_LEXEMES.length)]);
+      } else {
+        source.append(TestSources.randomLexeme(random));
+      }
+      if (i == 2500) {
+        source.append(" \"").append("a b 1 ".repeat(1000)).append("\" ");
+      }
+    }
+    return source.toString();
+  }
+
+  private static List<String> pull(String text) {
+    MyLexer lexer = new MyLexer(new StringReader(text));
+    List<String> tokens = new ArrayList<>();
+    Token token;
+    while ((token = lexer.next()) != null) {
+      tokens.add(token.toString());
+    }
+    return tokens;
+  }
+}
@@ -0,0 +1,99 @@
+/*
+* Copyright (c) 2025 lex-engine
+* Author: Pradeesh Kumar
+*/
+package org.lexengine.lexer.gentest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+import org.lexengine.lexer.gentest.lines.LineLexer;
+
+/** Tests the tokens of scanLines against a sequential scan of the same file. */
+public class ScanLinesTest {
+
+  private static final String[] LEXEMES = {
+    "abc", "x", "42", "7", " ", "\t", "\n", "\r\n", "\n\n", "# comment\n", "# café €\n",
+    "# 😀\n"
+  };
+
+  @Test
+  public void testScanLines() throws IOException {
+    StringBuilder text = new StringBuilder();
+    Random random = new Random(11);
+    for (int i = 0; i < 20000; i++) {
+      text.append(LEXEMES[random.nextInt(LEXEMES.length)]);
+    }
+    // The last line has no line separator
+    text.append("last 1");
+    List<String> expected = tokens(new LineLexer(new StringReader(text.toString())));
+    Path path = write(text.toString());
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      for (int sliceCount : new int[] {1, 2, 3, 7, 16, 100}) {
+        assertEquals(
+            expected, tokens(LineLexer.scanLines(path, sliceCount, pool)), "slices " + sliceCount);
+      }
+    } finally {
+      pool.shutdown();
+      Files.delete(path);
+    }
+  }
+
+  @Test
+  public void testScanLinesShortFiles() throws IOException {
+    for (String text : new String[] {"", "\n", "a", "a\n", "\n\nb 1\r\n"}) {
+      Path path = write(text);
+      try {
+        assertEquals(
+            tokens(new LineLexer(new StringReader(text))),
+            tokens(LineLexer.scanLines(path, 4)),
+            text);
+      } finally {
+        Files.delete(path);
+      }
+    }
+  }
+
+  @Test
+  public void testInvalidSliceCount() throws IOException {
+    Path path = write("a\n");
+    try {
+      assertThrows(IllegalArgumentException.class, () -> LineLexer.scanLines(path, 0));
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+  private static Path write(String text) throws IOException {
+    Path path = Files.createTempFile("lines", ".txt");
+    Files.writeString(path, text, StandardCharsets.UTF_8);
+    return path;
+  }
+
+  private static List<String> tokens(LineLexer lexer) {
+    List<String> tokens = new ArrayList<>();
+    int type;
+    while ((type = lexer.nextType()) != LineLexer.TOKEN_EOF) {
+      tokens.add(TestSources.token(type, lexer.tokenStart(), lexer.tokenEnd()));
+    }
+    return tokens;
+  }
+
+  private static List<String> tokens(LineLexer.Tokens tokens) {
+    List<String> list = new ArrayList<>();
+    for (int i = 0; i < tokens.count(); i++) {
+      list.add(TestSources.token(tokens.type(i), tokens.start(i), tokens.end(i)));
+    }
+    return list;
+  }
+}
@@ -0,0 +1,70 @@
+/*
+* Copyright (c) 2025 lex-engine
+* Author: Pradeesh Kumar
+*/
+package org.lexengine.lexer.gentest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/** Sources and tokens shared by the tests of the generated lexer. */
+final class TestSources {
+
+  /**
+   * Lexemes of the random sources. Any text made of their characters can be scanned, as every
+   * single character of them is a lexeme.
+   */
+  private static final String[] LEXEMES = {
+    "public", "class", "int", "if", "new", "this", "length", "width", "_x1", "a", "0", "7", "123",
+    "(", ")", "{", "}", ";", ".", "=", "<", "<=", ">=", "|", "||", "+", "-", "*", "/", "%", " ",
+    "  ", "\t", "\n", "\r\n"
+  };
+
+  private TestSources() {}
+
+  /**
+   * Returns a random source which can be scanned.
+   *
+   * @param random the random generator
+   * @param lexemeCount the number of lexemes of the source
+   * @return the source
+   */
+  static String randomSource(Random random, int lexemeCount) {
+    StringBuilder source = new StringBuilder();
+    for (int i = 0; i < lexemeCount; i++) {
+      source.append(randomLexeme(random));
+    }
+    return source.toString();
+  }
+
+  /**
+   * Returns a random lexeme of the random sources.
+   *
+   * @param random the random generator
+   * @return the lexeme
+   */
+  static String randomLexeme(Random random) {
+    return LEXEMES[random.nextInt(LEXEMES.length)];
+  }
+
+  /**
+   * Returns the tokens the given lexer scans with {@link MyLexer#nextType()} until the end of
+   * input, each as its type and offsets.
+   *
+   * @param lexer the lexer
+   * @return the tokens, as type:start:end
+   */
+  static List<String> tokens(MyLexer lexer) {
+    List<String> tokens = new ArrayList<>();
+    int type;
+    while ((type = lexer.nextType()) != MyLexer.TOKEN_EOF) {
+      tokens.add(token(type, lexer.tokenStart(), lexer.tokenEnd()));
+    }
+    return tokens;
+  }
+
+  static String token(int type, int start, int end) {
+    return type + ":" + start + ":" + end;
+  }
+}
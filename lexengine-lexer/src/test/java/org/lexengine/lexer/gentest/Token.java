@@ -41,7 +41,10 @@ public class Token {
     CLOSE_BRACE,
     DIV,
     OPEN_PAREN,
-    COMMENT
+    COMMENT,
+    SELECT,
+    FROM,
+    WHERE
   }
 
   private String strVal;
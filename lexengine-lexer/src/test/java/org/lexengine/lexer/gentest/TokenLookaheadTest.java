@@ -0,0 +1,127 @@
+/*
+* Copyright (c) 2025 lex-engine
+* Author: Pradeesh Kumar
+*/
+package org.lexengine.lexer.gentest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/** Tests the lookahead buffer against the sequential scan, replaying the tokens after a reset. */
+public class TokenLookaheadTest {
+
+  @Test
+  public void testPeek() {
+    String text = TestSources.randomSource(new Random(31), 5000);
+    List<String> expected = TestSources.tokens(new MyLexer(new StringReader(text)));
+    for (int capacity : new int[] {1, 2, 64}) {
+      try (MyLexer.TokenLookahead lookahead =
+          new MyLexer.TokenLookahead(new MyLexer(new StringReader(text)), capacity)) {
+        for (int i = 0; i <= expected.size(); i++) {
+          for (int k = 1; k <= 5; k++) {
+            assertEquals(tokenAt(expected, i + k - 1, text), peeked(lookahead, k), i + "+" + k);
+          }
+          lookahead.nextType();
+          assertEquals(tokenAt(expected, i, text), current(lookahead), "token " + i);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testMarkAndReset() {
+    Random random = new Random(32);
+    String text = TestSources.randomSource(random, 5000);
+    List<String> expected = TestSources.tokens(new MyLexer(new StringReader(text)));
+    for (int capacity : new int[] {1, 4, 64}) {
+      try (MyLexer.TokenLookahead lookahead =
+          new MyLexer.TokenLookahead(new MyLexer(new StringReader(text)), capacity)) {
+        // The live marks, as positions of the tokens in the expected ones
+        List<Integer> marks = new ArrayList<>();
+        int position = 0;
+        while (position < expected.size() || !marks.isEmpty()) {
+          int op = random.nextInt(20);
+          if (op == 0 && marks.size() < 8) {
+            int mark = lookahead.mark();
+            marks.add(mark);
+            marks.add(position);
+          } else if (op == 1 && !marks.isEmpty()) {
+            // Rewind over the tokens consumed since a mark, which are replayed from the ring
+            int i = random.nextInt(marks.size() / 2) * 2;
+            lookahead.reset(marks.get(i));
+            position = marks.get(i + 1);
+          } else if ((op == 2 || position == expected.size()) && !marks.isEmpty()) {
+            int i = random.nextInt(marks.size() / 2) * 2;
+            lookahead.release(marks.remove(i));
+            marks.remove(i);
+          } else {
+            lookahead.nextType();
+            assertEquals(tokenAt(expected, position, text), current(lookahead), "at " + position);
+            position = Math.min(position + 1, expected.size());
+          }
+          assertEquals(tokenAt(expected, position, text), peeked(lookahead, 1), "at " + position);
+        }
+        assertEquals(MyLexer.TOKEN_EOF, lookahead.nextType());
+      }
+    }
+  }
+
+  @Test
+  public void testCurrentToken() {
+    try (MyLexer.TokenLookahead lookahead =
+        new MyLexer.TokenLookahead(new MyLexer(new StringReader("int a")))) {
+      assertEquals(MyLexer.TOKEN_EOF, lookahead.type());
+      int mark = lookahead.mark();
+      int type = lookahead.nextType();
+      assertEquals(type, lookahead.type());
+      assertEquals(0, lookahead.tokenStart());
+      assertEquals(3, lookahead.tokenEnd());
+      // The current token is left as is by a reset
+      lookahead.reset(mark);
+      assertEquals(3, lookahead.tokenEnd());
+      assertEquals(0, lookahead.peekStart(1));
+      lookahead.release(mark);
+      lookahead.nextType();
+      lookahead.nextType();
+      assertEquals(MyLexer.TOKEN_EOF, lookahead.nextType());
+      assertEquals(5, lookahead.tokenStart());
+      assertEquals(5, lookahead.peekEnd(3));
+    }
+  }
+
+  @Test
+  public void testInvalidMarks() {
+    try (MyLexer.TokenLookahead lookahead =
+        new MyLexer.TokenLookahead(new MyLexer(new StringReader("int a = 1;")))) {
+      lookahead.nextType();
+      int mark = lookahead.mark();
+      lookahead.release(mark);
+      assertThrows(IllegalArgumentException.class, () -> lookahead.reset(mark));
+      assertThrows(IllegalArgumentException.class, () -> lookahead.release(mark));
+      assertThrows(IllegalArgumentException.class, () -> lookahead.reset(0));
+    }
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new MyLexer.TokenLookahead(new MyLexer(new StringReader("a")), 0));
+  }
+
+  /** Returns the expected token at the given position, or the end of input past the tokens. */
+  private static String tokenAt(List<String> expected, int position, String text) {
+    return position < expected.size()
+        ? expected.get(position)
+        : TestSources.token(MyLexer.TOKEN_EOF, text.length(), text.length());
+  }
+
+  private static String peeked(MyLexer.TokenLookahead lookahead, int k) {
+    return TestSources.token(lookahead.peek(k), lookahead.peekStart(k), lookahead.peekEnd(k));
+  }
+
+  private static String current(MyLexer.TokenLookahead lookahead) {
+    return TestSources.token(lookahead.type(), lookahead.tokenStart(), lookahead.tokenEnd());
+  }
+}
@@ -0,0 +1,75 @@
+/*
+* Copyright (c) 2025 lex-engine
+* Author: Pradeesh Kumar
+*/
+package org.lexengine.lexer.gentest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/** Tests the tokens read from a TokenPipeline against a sequential scan of the same text. */
+public class TokenPipelineTest {
+
+  @Test
+  public void testTokens() {
+    String text = TestSources.randomSource(new Random(3), 20000);
+    List<String> expected = TestSources.tokens(new MyLexer(new StringReader(text)));
+    try (MyLexer.TokenPipeline pipeline = new MyLexer.TokenPipeline(new StringReader(text))) {
+      assertEquals(expected, tokens(pipeline));
+    }
+    // A small ring makes both sides wait for each other
+    for (int capacity : new int[] {1, 2, 5, 64}) {
+      try (MyLexer.TokenPipeline pipeline =
+          new MyLexer.TokenPipeline(new StringReader(text), capacity)) {
+        assertEquals(expected, tokens(pipeline), "capacity " + capacity);
+      }
+    }
+  }
+
+  @Test
+  public void testCurrentToken() {
+    try (MyLexer.TokenPipeline pipeline = new MyLexer.TokenPipeline(new StringReader("int a"))) {
+      int type = pipeline.nextType();
+      assertEquals(type, pipeline.type());
+      assertEquals(0, pipeline.tokenStart());
+      assertEquals(3, pipeline.tokenEnd());
+      pipeline.nextType();
+      assertEquals(MyLexer.TOKEN_EOF, pipeline.nextType());
+      assertEquals(MyLexer.TOKEN_EOF, pipeline.type());
+    }
+  }
+
+  @Test
+  public void testFailure() {
+    try (MyLexer.TokenPipeline pipeline =
+        new MyLexer.TokenPipeline(new StringReader("int a = 1; @"))) {
+      // The tokens before the failure are consumed first
+      for (int i = 0; i < 5; i++) {
+        assertNotEquals(MyLexer.TOKEN_EOF, pipeline.nextType());
+      }
+      MyLexer.LexerException e = assertThrows(MyLexer.LexerException.class, pipeline::nextType);
+      assertNotNull(e.getCause());
+    }
+  }
+
+  @Test
+  public void testInvalidCapacity() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new MyLexer.TokenPipeline(new StringReader("a"), 0));
+  }
+
+  private static List<String> tokens(MyLexer.TokenPipeline pipeline) {
+    List<String> tokens = new ArrayList<>();
+    int type;
+    while ((type = pipeline.nextType()) != MyLexer.TOKEN_EOF) {
+      tokens.add(TestSources.token(type, pipeline.tokenStart(), pipeline.tokenEnd()));
+    }
+    return tokens;
+  }
+}
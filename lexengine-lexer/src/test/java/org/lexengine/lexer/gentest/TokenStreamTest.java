@@ -0,0 +1,76 @@
+/*
+* Copyright (c) 2025 lex-engine
+* Author: Pradeesh Kumar
+*/
+package org.lexengine.lexer.gentest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import org.junit.jupiter.api.Test;
+
+/** Tests the token streams of the generated lexer against the tokens of next(). */
+public class TokenStreamTest {
+
+  @Test
+  public void testParallelStream() {
+    String text = TestSources.randomSource(new Random(3), 50000);
+    List<String> expected = next(text);
+    assertEquals(expected, MyLexer.tokens(text).map(String::valueOf).toList());
+    assertEquals(expected, MyLexer.tokens(text).parallel().map(String::valueOf).toList());
+  }
+
+  @Test
+  public void testTrySplit() {
+    String text = TestSources.randomSource(new Random(4), 20000);
+    Spliterator<Token> tokens = MyLexer.tokens(text).spliterator();
+    assertEquals(Spliterator.ORDERED | Spliterator.NONNULL, tokens.characteristics());
+    assertEquals(text.length(), tokens.estimateSize());
+    Spliterator<Token> prefix = tokens.trySplit();
+    assertNotNull(prefix);
+    int split = (int) prefix.estimateSize();
+    assertEquals(text.length(), split + tokens.estimateSize());
+    assertTrue(split >= text.length() / 2, "split at " + split);
+    // The prefix ends with a character always ending a lexeme
+    assertTrue(";(){}.=*+-/%".indexOf(text.charAt(split - 1)) >= 0, "split at " + split);
+    List<String> actual = new ArrayList<>();
+    prefix.forEachRemaining(token -> actual.add(String.valueOf(token)));
+    tokens.forEachRemaining(token -> actual.add(String.valueOf(token)));
+    assertEquals(next(text), actual);
+  }
+
+  @Test
+  public void testNoSplit() {
+    // Too short to be split
+    assertNull(MyLexer.tokens("int a;").spliterator().trySplit());
+    // No character of the text always ends a lexeme
+    assertNull(MyLexer.tokens("int a ".repeat(1000)).spliterator().trySplit());
+  }
+
+  @Test
+  public void testReaderStream() {
+    // The stream of a reader is sequential by design, its spliterator is never split
+    String text = TestSources.randomSource(new Random(6), 20000);
+    Spliterator<Token> tokens = new MyLexer(new StringReader(text)).tokens().spliterator();
+    assertEquals(Spliterator.ORDERED | Spliterator.NONNULL, tokens.characteristics());
+    assertEquals(Long.MAX_VALUE, tokens.estimateSize());
+    assertNull(tokens.trySplit());
+    assertEquals(
+        next(text),
+        new MyLexer(new StringReader(text)).tokens().parallel().map(String::valueOf).toList());
+  }
+
+  private static List<String> next(String text) {
+    MyLexer lexer = new MyLexer(new StringReader(text));
+    List<String> tokens = new ArrayList<>();
+    Token token;
+    while ((token = lexer.next()) != null) {
+      tokens.add(token.toString());
+    }
+    return tokens;
+  }
+}
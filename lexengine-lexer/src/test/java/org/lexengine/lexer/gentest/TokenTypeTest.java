@@ -0,0 +1,75 @@
+/*
+* Copyright (c) 2025 lex-engine
+* Author: Pradeesh Kumar
+*/
+package org.lexengine.lexer.gentest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.lexengine.lexer.gentest.types.TokenTypeLexer;
+
+/** Tests the token types scanned without running the actions. */
+public class TokenTypeTest {
+
+  private static final String TEXT = "if (x1 + 42) else - elsewhere";
+
+  @Test
+  public void testTypesAndOffsets() {
+    TokenTypeLexer lexer = new TokenTypeLexer(new StringReader(TEXT));
+    List<String> tokens = new ArrayList<>();
+    int type;
+    while ((type = lexer.nextType()) != TokenTypeLexer.TOKEN_EOF) {
+      tokens.add(type + " " + lexer.tokenStart() + ":" + lexer.tokenEnd() + " " + lexer.text());
+    }
+    assertEquals(TokenTypeLexer.TOKEN_EOF, lexer.nextType());
+    // The rule without name has a type of its own, shared by both parentheses
+    int paren = Integer.parseInt(tokens.get(1).split(" ")[0]);
+    assertEquals(
+        List.of(
+            TokenTypeLexer.TOKEN_IF + " 0:2 if",
+            paren + " 3:4 (",
+            TokenTypeLexer.TOKEN_ID + " 4:6 x1",
+            TokenTypeLexer.TOKEN_OP + " 7:8 +",
+            TokenTypeLexer.TOKEN_NUMBER + " 9:11 42",
+            paren + " 11:12 )",
+            TokenTypeLexer.TOKEN_ELSE + " 13:17 else",
+            TokenTypeLexer.TOKEN_OP + " 18:19 -",
+            TokenTypeLexer.TOKEN_ID + " 20:29 elsewhere"),
+        tokens);
+    Set<Integer> types =
+        Set.of(
+            TokenTypeLexer.TOKEN_IF,
+            TokenTypeLexer.TOKEN_ELSE,
+            TokenTypeLexer.TOKEN_ID,
+            TokenTypeLexer.TOKEN_NUMBER,
+            TokenTypeLexer.TOKEN_OP,
+            paren);
+    assertEquals(6, types.size());
+    assertFalse(types.contains(TokenTypeLexer.TOKEN_EOF));
+  }
+
+  @Test
+  public void testTypesOfTheActions() {
+    // The types follow the tokens returned by the actions
+    TokenTypeLexer types = new TokenTypeLexer(new StringReader(TEXT));
+    TokenTypeLexer actions = new TokenTypeLexer(new StringReader(TEXT));
+    String value;
+    while ((value = actions.next()) != null) {
+      int type = types.nextType();
+      if (value.startsWith("id:")) {
+        assertEquals(TokenTypeLexer.TOKEN_ID, type, value);
+      } else if (value.startsWith("num:")) {
+        assertEquals(TokenTypeLexer.TOKEN_NUMBER, type, value);
+      } else if (value.equals("+") || value.equals("-")) {
+        assertEquals(TokenTypeLexer.TOKEN_OP, type, value);
+      }
+      assertEquals(value.substring(value.indexOf(':') + 1), types.text());
+    }
+    assertEquals(TokenTypeLexer.TOKEN_EOF, types.nextType());
+  }
+}
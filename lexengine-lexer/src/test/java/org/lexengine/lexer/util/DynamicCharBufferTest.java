@@ -10,6 +10,8 @@ import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.io.StringReader;
+import java.nio.CharBuffer;
 import java.nio.charset.StandardCharsets;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -132,4 +134,225 @@ public class DynamicCharBufferTest {
         IllegalArgumentException.class,
         () -> new DynamicCharBuffer(reader, invalidInitialCapacity));
   }
+
+  @Test
+  public void testRollbackTo() {
+    Reader reader = new StringReader("Hello");
+    DynamicCharBuffer dynamicCharBuffer = new DynamicCharBuffer(reader);
+    dynamicCharBuffer.next();
+    dynamicCharBuffer.clearTillCurrent();
+    dynamicCharBuffer.next();
+    dynamicCharBuffer.next();
+    dynamicCharBuffer.next();
+    assertEquals(3, dynamicCharBuffer.lexemeLength());
+
+    dynamicCharBuffer.rollbackTo(1);
+    assertEquals(1, dynamicCharBuffer.lexemeLength());
+    assertEquals("e", dynamicCharBuffer.getStringTillCurrent());
+    assertEquals('l', dynamicCharBuffer.peek());
+  }
+
+  @Test
+  public void testGetStringTillCurrentAfterRefill() {
+    Reader reader = new StringReader("abcdefgh");
+    DynamicCharBuffer dynamicCharBuffer = new DynamicCharBuffer(reader, 4);
+    dynamicCharBuffer.next();
+    dynamicCharBuffer.next();
+    dynamicCharBuffer.clearTillCurrent();
+    while (dynamicCharBuffer.hasNext()) {
+      dynamicCharBuffer.next();
+    }
+    assertEquals("cdefgh", dynamicCharBuffer.getStringTillCurrent());
+  }
+
+  @Test
+  public void testCharAtAndContentEquals() {
+    DynamicCharBuffer dynamicCharBuffer = new DynamicCharBuffer(new StringReader("Hello"));
+    dynamicCharBuffer.next();
+    dynamicCharBuffer.clearTillCurrent();
+    dynamicCharBuffer.next();
+    dynamicCharBuffer.next();
+    assertEquals('e', dynamicCharBuffer.charAt(0));
+    assertEquals('l', dynamicCharBuffer.charAt(1));
+    assertTrue(dynamicCharBuffer.contentEquals("el"));
+    assertFalse(dynamicCharBuffer.contentEquals("ell"));
+    assertFalse(dynamicCharBuffer.contentEquals("eL"));
+    assertFalse(dynamicCharBuffer.contentEquals(null));
+  }
+
+  @Test
+  public void testBufferReusedOnRefill() {
+    DynamicCharBuffer dynamicCharBuffer = new DynamicCharBuffer(new StringReader("abcdefghij"), 4);
+    StringBuilder sb = new StringBuilder();
+    while (dynamicCharBuffer.hasNext()) {
+      dynamicCharBuffer.next();
+      sb.append(dynamicCharBuffer.getStringTillCurrent());
+      dynamicCharBuffer.clearTillCurrent();
+    }
+    assertEquals("abcdefghij", sb.toString());
+    assertEquals(4, dynamicCharBuffer.capacity());
+  }
+
+  @Test
+  public void testReset() {
+    DynamicCharBuffer dynamicCharBuffer = new DynamicCharBuffer(new StringReader("abcdef"), 4);
+    dynamicCharBuffer.next();
+    dynamicCharBuffer.next();
+    dynamicCharBuffer.reset(new StringReader("xy"));
+    assertEquals(0, dynamicCharBuffer.lexemeLength());
+    assertEquals('x', dynamicCharBuffer.next());
+    assertEquals('y', dynamicCharBuffer.next());
+    assertFalse(dynamicCharBuffer.hasNext());
+    assertEquals("xy", dynamicCharBuffer.getStringTillCurrent());
+    assertEquals(4, dynamicCharBuffer.capacity());
+  }
+
+  @Test
+  public void testAppend() {
+    DynamicCharBuffer dynamicCharBuffer = new DynamicCharBuffer(4);
+    assertEquals(0, dynamicCharBuffer.available());
+    CharBuffer chars = CharBuffer.wrap("abcdef");
+    dynamicCharBuffer.append(chars, 3);
+    assertEquals(3, chars.position());
+    assertEquals(3, dynamicCharBuffer.available());
+    dynamicCharBuffer.next();
+    dynamicCharBuffer.clearTillCurrent();
+    dynamicCharBuffer.next();
+    dynamicCharBuffer.next();
+    dynamicCharBuffer.append(chars, 3);
+    assertEquals(3, dynamicCharBuffer.available());
+    while (dynamicCharBuffer.available() > 0) {
+      dynamicCharBuffer.next();
+    }
+    assertEquals("bcdef", dynamicCharBuffer.getStringTillCurrent());
+    assertEquals(8, dynamicCharBuffer.capacity());
+  }
+
+  @Test
+  public void testWindowSpanningChunks() {
+    DynamicCharBuffer dynamicCharBuffer =
+        new DynamicCharBuffer(new StringReader("ab/*0123456789*/cd"), 4);
+    dynamicCharBuffer.next();
+    dynamicCharBuffer.next();
+    dynamicCharBuffer.clearTillCurrent();
+    for (int i = 0; i < 16; i++) {
+      dynamicCharBuffer.next();
+    }
+    assertEquals("/*0123456789*/cd", dynamicCharBuffer.getStringTillCurrent());
+    assertEquals('9', dynamicCharBuffer.charAt(11));
+    dynamicCharBuffer.rollbackTo(3);
+    assertEquals('1', dynamicCharBuffer.peek());
+    assertTrue(dynamicCharBuffer.contentEquals("/*0"));
+    assertEquals(20, dynamicCharBuffer.capacity());
+  }
+
+  @Test
+  public void testChunksRecycled() {
+    DynamicCharBuffer dynamicCharBuffer =
+        new DynamicCharBuffer(new StringReader("xyz".repeat(100)), 4);
+    while (dynamicCharBuffer.hasNext()) {
+      dynamicCharBuffer.next();
+      dynamicCharBuffer.next();
+      dynamicCharBuffer.next();
+      assertEquals("xyz", dynamicCharBuffer.getStringTillCurrent());
+      dynamicCharBuffer.clearTillCurrent();
+    }
+    assertEquals(8, dynamicCharBuffer.capacity());
+  }
+
+  @Test
+  public void testRelease() {
+    boolean[] closed = new boolean[1];
+    Reader reader =
+        new StringReader("abcdef") {
+          @Override
+          public void close() {
+            closed[0] = true;
+            super.close();
+          }
+        };
+    DynamicCharBuffer dynamicCharBuffer = new DynamicCharBuffer(reader, 4);
+    dynamicCharBuffer.next();
+    dynamicCharBuffer.release();
+    assertTrue(closed[0]);
+    assertFalse(dynamicCharBuffer.hasNext());
+    assertEquals(0, dynamicCharBuffer.lexemeLength());
+    assertEquals(0, dynamicCharBuffer.capacity());
+  }
+
+  @Test
+  public void testChunksReturnedToPool() {
+    DynamicCharBuffer.ChunkPool pool = new DynamicCharBuffer.ChunkPool(4, 2);
+    DynamicCharBuffer first = new DynamicCharBuffer(new StringReader("abcdefghij"), pool);
+    while (first.hasNext()) {
+      first.next();
+    }
+    assertEquals("abcdefghij", first.getStringTillCurrent());
+    first.release();
+    assertEquals(3, pool.borrowed());
+    assertEquals(3, pool.allocated());
+    assertEquals(3, pool.returned());
+    assertEquals(1, pool.discarded());
+    assertEquals(2, pool.idle());
+
+    DynamicCharBuffer second = new DynamicCharBuffer(new StringReader("xyz"), pool);
+    second.next();
+    assertEquals(4, pool.borrowed());
+    assertEquals(3, pool.allocated());
+    assertEquals(1, pool.idle());
+    second.release();
+    second.reset(new StringReader("uv"));
+    assertEquals('u', second.next());
+    assertEquals(5, pool.borrowed());
+    assertEquals(1, pool.idle());
+  }
+
+  @Test
+  public void testLinesIndexed() {
+    DynamicCharBuffer.LineIndex lines = new DynamicCharBuffer.LineIndex();
+    DynamicCharBuffer dynamicCharBuffer =
+        new DynamicCharBuffer(
+            new StringReader("ab\ncd\r\n\nefg"), new DynamicCharBuffer.ChunkPool(4, 1), lines);
+    assertEquals(4, lines.indexedTo());
+    while (dynamicCharBuffer.hasNext()) {
+      dynamicCharBuffer.next();
+      dynamicCharBuffer.clearTillCurrent();
+    }
+    assertEquals(11, lines.indexedTo());
+    assertEquals(1, lines.line(0));
+    assertEquals(1, lines.line(2));
+    assertEquals(3, lines.column(2));
+    assertEquals(2, lines.line(3));
+    assertEquals(1, lines.column(3));
+    assertEquals(2, lines.line(6));
+    assertEquals(4, lines.column(6));
+    assertEquals(3, lines.line(7));
+    assertEquals(4, lines.line(11));
+    assertEquals(4, lines.column(11));
+    assertThrows(IndexOutOfBoundsException.class, () -> lines.line(12));
+
+    lines.truncate(5);
+    assertEquals(5, lines.indexedTo());
+    assertEquals(2, lines.line(5));
+    lines.index("xy\nz".toCharArray(), 1, 4);
+    assertEquals(8, lines.indexedTo());
+    assertEquals(2, lines.line(6));
+    assertEquals(3, lines.line(7));
+    assertEquals(2, lines.column(8));
+  }
+
+  @Test
+  public void testAppendedLinesIndexed() {
+    DynamicCharBuffer.LineIndex lines = new DynamicCharBuffer.LineIndex();
+    DynamicCharBuffer dynamicCharBuffer =
+        new DynamicCharBuffer(null, new DynamicCharBuffer.ChunkPool(4, 1), lines);
+    dynamicCharBuffer.append(CharBuffer.wrap("a\nbc\nd"), 3);
+    assertEquals(3, lines.indexedTo());
+    dynamicCharBuffer.append(CharBuffer.wrap("c\nd"), 10);
+    assertEquals(6, lines.indexedTo());
+    assertEquals(3, lines.line(5));
+    assertEquals(3, lines.column(4));
+    lines.index("\n\n", 0, 2);
+    assertEquals(5, lines.line(8));
+  }
 }
@@ -0,0 +1,20 @@
+# This is a Lexer Specification file to generate the Scanner
+# This file consists of 2 parts: config values and regex definitions
+# The config value contains properties related to generated scanner such as name of the scanner class, method name etc
+# The section is divided by the string '---'
+
+class=CaseInsensitiveLexer
+package=org.lexengine.lexer.gentest.caseless
+methodName=next
+returnType=Token
+imports=org.lexengine.lexer.gentest.Token
+
+---
+
+# Case-insensitive keywords, flagged with the suffix i
+"select"i { return Token.of(Token.Type.SELECT); }
+"from"i { return Token.of(Token.Type.FROM); }
+"Where" { return Token.of(Token.Type.WHERE); }
+"[a-z_][a-z0-9_]*"i { return Token.identifier(value()); }
+"'[^']*'" { return Token.string(value()); }
+"[\ \t\r\n]+" { /* do nothing */ }
@@ -0,0 +1,19 @@
+# This is a Lexer Specification file to generate the Scanner
+# This file consists of 2 parts: config values and regex definitions
+# The config value contains properties related to generated scanner such as name of the scanner class, method name etc
+# The section is divided by the string '---'
+
+class=ChannelLexer
+package=org.lexengine.lexer.gentest.channels
+methodName=next
+returnType=String
+
+---
+
+"[a-z]+" { return value(); }
+"[0-9]+" { return value(); }
+
+# Whitespace is consumed by the scanner, comments are recorded by their offsets
+"[\ \t\r\n]+" -> skip
+"//[^\n]*" -> channel(hidden)
+"/\*([^*]|\*+[^*/])*\*+/" -> channel( hidden )
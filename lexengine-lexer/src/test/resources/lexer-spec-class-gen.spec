@@ -7,6 +7,7 @@ class=MyLexer
 package=org.lexengine.lexer.gentest
 methodName=next
 returnType=Token
+features=document, parallel, service, publisher, pipeline, prefetching, lookahead, push, stream
 
 ---
 
@@ -48,8 +49,10 @@ returnType=Token
 
 # Identifier
 "[a-zA-Z_][a-zA-Z0-9_]*" { return Token.identifier(value()); }
+"[α-ω]+" { return Token.identifier(value()); }
+"\x{1F600}+|€" { return Token.identifier(value()); }
 
 # Integer
 "[0-9]|[1-9][0-9]*" { return Token.integer(value()); }
 
-"[\ \t\b\f\r\n]+" { /* do nothing */ }
+"[\ \t\b\f\r\n]+" -> skip
@@ -0,0 +1,21 @@
+# This is a Lexer Specification file to generate the Scanner
+# This file consists of 2 parts: config values and regex definitions
+# The config value contains properties related to generated scanner such as name of the scanner class, method name etc
+# The section is divided by the string '---'
+
+class=LineLexer
+package=org.lexengine.lexer.gentest.lines
+methodName=next
+returnType=String
+lineSeparated=true
+features=document, parallel, service, publisher, pipeline, prefetching, lookahead, push, stream
+
+---
+
+"[a-z]+" { return value(); }
+"[0-9]+" { return value(); }
+
+# Every line separator ends a lexeme, so that the lines can be scanned apart
+"[\ \t]+" -> skip
+"\r?\n" -> skip
+"#[^\r\n]*" -> channel(hidden)
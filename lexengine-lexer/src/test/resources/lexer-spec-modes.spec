@@ -0,0 +1,31 @@
+# This is a Lexer Specification file to generate the Scanner
+# This file consists of 2 parts: config values and regex definitions
+# The config value contains properties related to generated scanner such as name of the scanner class, method name etc
+# The section is divided by the string '---'
+
+class=ModeLexer
+package=org.lexengine.lexer.gentest.modes
+methodName=next
+returnType=String
+
+---
+
+# The NUL character is returned in every mode
+<*> "\x{0}" { return "nul"; }
+
+"[a-z]+" { return "id:" + value(); }
+"[\ \t\r\n]+" -> skip
+"\"" { return "begin"; } -> pushMode(STRING)
+"/\*" -> pushMode(COMMENT), skip
+
+# Strings with interpolations, e.g. "a${b}c"
+<STRING> "[^\"$]+" { return "text:" + value(); }
+<STRING> "$\{" { return "interp"; } -> pushMode(INITIAL)
+<STRING> "\"" { return "end"; } -> popMode
+"\}" -> popMode, skip
+
+# Nested comments
+<COMMENT> "/\*" -> pushMode(COMMENT), skip
+<COMMENT> "\*/" -> popMode, skip
+<COMMENT> "[^*/]+|\*|/" -> skip
+
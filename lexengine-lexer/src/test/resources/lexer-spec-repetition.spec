@@ -0,0 +1,19 @@
+# This is a Lexer Specification file to generate the Scanner
+# This file consists of 2 parts: config values and regex definitions
+# The config value contains properties related to generated scanner such as name of the scanner class, method name etc
+# The section is divided by the string '---'
+
+class=MyLexer
+package=org.lexengine.lexer.generated
+methodName=next
+returnType=Token
+
+---
+
+# Counted repetitions
+"[a-f0-9]{32}" { return Token.hash(value()); }
+"[0-9]{1,3}(\.[0-9]{1,3}){3}" { return Token.ipAddress(value()); }
+"(ab|cd){2,}" { return Token.pairs(value()); }
+"x{2,4}" { return Token.xs(value()); }
+"(a|b)*c" { return Token.abc(value()); }
+"[0-9]+" { return Token.integer(value()); }
@@ -0,0 +1,26 @@
+# This is a Lexer Specification file to generate the Scanner
+# This file consists of 2 parts: config values and regex definitions
+# The config value contains properties related to generated scanner such as name of the scanner class, method name etc
+# The section is divided by the string '---'
+
+class=TokenTypeLexer
+package=org.lexengine.lexer.gentest.types
+methodName=next
+returnType=String
+
+---
+
+# The keywords are recognized by the perfect hash, their types are still their own
+IF "if" { return "if"; }
+ELSE "else" { return "else"; }
+ID "[a-z_][a-z0-9_]*" { return "id:" + value(); }
+NUMBER "[0-9]+" { return "num:" + value(); }
+
+# Rules of the same name share the type
+OP "\+" { return "+"; }
+OP "-" { return "-"; }
+
+# A rule without name has a type too, but no constant
+"[()]" { return value(); }
+
+"[\ \t\r\n]+" -> skip
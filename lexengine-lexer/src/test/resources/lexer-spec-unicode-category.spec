@@ -0,0 +1,19 @@
+# This is a Lexer Specification file to generate the Scanner
+# This file consists of 2 parts: config values and regex definitions
+# The config value contains properties related to generated scanner such as name of the scanner class, method name etc
+# The section is divided by the string '---'
+
+class=MyLexer
+package=org.lexengine.lexer.generated
+methodName=next
+returnType=Token
+
+---
+
+# Unicode general categories
+"\p{Lu}\p{Ll}+" { return Token.capitalized(value()); }
+"[\p{L}_][\p{L}\p{Nd}_]*" { return Token.identifier(value()); }
+"\p{Nd}+" { return Token.integer(value()); }
+"\p{Sc}" { return Token.currency(value()); }
+"\P{L}\P{L}" { return Token.nonLetters(value()); }
+"[\p{Zs}\t\r\n]+" { /* do nothing */ }
@@ -0,0 +1,24 @@
+# This is a Lexer Specification file to generate the Scanner
+# This file consists of 2 parts: config values and regex definitions
+# The config value contains properties related to generated scanner such as name of the scanner class, method name etc
+# The section is divided by the string '---'
+
+class=MyLexer
+package=org.lexengine.lexer.generated
+methodName=next
+returnType=Token
+
+---
+
+# Greek words, written with a literal and an escaped range bound
+"[α-\u03C9]+" { return Token.greek(value()); }
+
+# Supplementary code points
+"\x{1F600}+" { return Token.emoji(value()); }
+"🚀" { return Token.rocket(); }
+
+# Any character other than the quote
+"'[^']*'" { return Token.string(value()); }
+
+"[a-z]+" { return Token.identifier(value()); }
+"[\ \t\r\n]+" { /* do nothing */ }
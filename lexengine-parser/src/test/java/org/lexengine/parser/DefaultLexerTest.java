@@ -0,0 +1,53 @@
+/*
+* Copyright (c) 2025 lex-engine
+* Author: Pradeesh Kumar
+*/
+package org.lexengine.parser;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.lexengine.parser.core.Lexer;
+
+/**
+ * Tests the lexer generated from the lexer spec of the parser with the scanner template of the
+ * lexer module, as the build does.
+ */
+public class DefaultLexerTest {
+
+  @Test
+  void testNextTokens() {
+    Lexer lexer = new DefaultLexer(new StringReader("package org.example;\nint x = 42;"));
+    List<String> tokens = new ArrayList<>();
+    while (lexer.hasNext()) {
+      Lexer.Token token = lexer.next();
+      tokens.add(token.value() == null ? token.name() : token.name() + " " + token.value());
+    }
+    assertEquals(
+        List.of(
+            "PACKAGE",
+            "IDENTIFIER org",
+            "DOT",
+            "IDENTIFIER example",
+            "SEMICOLON",
+            "INT",
+            "IDENTIFIER x",
+            "EQ",
+            "INTEGER",
+            "SEMICOLON"),
+        tokens);
+  }
+
+  @Test
+  void testPeek() {
+    Lexer lexer = new DefaultLexer(new StringReader("class Foo"));
+    assertTrue(lexer.hasNext());
+    assertEquals("CLASS", lexer.peek().name());
+    assertEquals("CLASS", lexer.next().name());
+    assertEquals("Foo", lexer.next().value());
+    assertFalse(lexer.hasNext());
+  }
+}
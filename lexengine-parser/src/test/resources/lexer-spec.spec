@@ -7,6 +7,8 @@ class=DefaultLexer
 package=org.lexengine.parser
 methodName=next
 returnType=Token
+imports=org.lexengine.parser.core.TestToken, org.lexengine.parser.core.Lexer
+implements=Lexer
 
 ---
 